@@ -25,6 +25,8 @@ dependencies {
     // 测试依赖
     testImplementation(gradleTestKit())
     testImplementation(libs.junit.jupiter)
+    // interprets the migration scripts of the generator tests without a database
+    testImplementation("org.jooq:jooq-meta-extensions:3.19.29")
 }
 
 gradlePlugin {
@@ -42,6 +44,8 @@ gradlePlugin {
 
 tasks.test {
     useJUnitPlatform()
+    // the watch test cancels its build through the Tooling API, which runs it on this installation
+    gradle.gradleHomeDir?.let { systemProperty("gradle.installation", it.absolutePath) }
 }
 
 sourceSets {
@@ -50,4 +54,37 @@ sourceSets {
             setSrcDirs(listOf("src/test/java"))
         }
     }
+    create("benchmark") {
+        java {
+            setSrcDirs(listOf("src/benchmark/java"))
+        }
+    }
+}
+
+val benchmarkImplementation by configurations.getting {
+    extendsFrom(configurations.testImplementation.get())
+}
+
+dependencies {
+    benchmarkImplementation(gradleTestKit())
+}
+
+gradlePlugin {
+    testSourceSets(sourceSets["test"], sourceSets["benchmark"])
+}
+
+// not part of check, run with ./gradlew benchmark -Pbenchmark.schemas=small,wide or --tests '*PreRenderedSqlBenchmark'
+val benchmark by tasks.registering(Test::class) {
+    description = "Runs generateJooq on synthetic schemas and records the timings."
+    group = "verification"
+    testClassesDirs = sourceSets["benchmark"].output.classesDirs
+    classpath = sourceSets["benchmark"].runtimeClasspath
+    useJUnitPlatform()
+    val resultsDir = layout.buildDirectory.dir("benchmark-results")
+    outputs.dir(resultsDir)
+    outputs.upToDateWhen { false }
+    providers.gradleProperty("benchmark.schemas").orNull?.let { systemProperty("benchmark.schemas", it) }
+    providers.gradleProperty("benchmark.source").orNull?.let { systemProperty("benchmark.source", it) }
+    systemProperty("benchmark.resultsDir", resultsDir.get().asFile.absolutePath)
+    testLogging.showStandardStreams = true
 }
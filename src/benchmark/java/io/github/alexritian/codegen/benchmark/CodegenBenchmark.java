@@ -0,0 +1,129 @@
+package io.github.alexritian.codegen.benchmark;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs {@code generateJooq} on synthetic schemas and writes the wall time of every scenario together with the codegen
+ * report of the task to {@code <benchmark.resultsDir>/<schema>.json}.
+ * <p>
+ * The schemas to run are selected with the {@code benchmark.schemas} system property, e.g. {@code small,wide}, and the
+ * schema source with {@code benchmark.source}, e.g. {@code ddl} to run without Docker.
+ *
+ * @author Too_young
+ */
+class CodegenBenchmark {
+    private static final String TASK = ":generateJooq";
+
+    @TempDir
+    File testProjectDir;
+
+    @TempDir
+    File testKitDir;
+
+    /**
+     * @return the schema source selected with the {@code benchmark.source} system property, {@code container} by default
+     */
+    static String source() {
+        return System.getProperty("benchmark.source", "container");
+    }
+
+    static Stream<SyntheticSchema> schemas() {
+        String schemas = System.getProperty("benchmark.schemas", "small,medium,large,wide,forced_types");
+        return Arrays.stream(schemas.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> SyntheticSchema.valueOf(name.toUpperCase()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("schemas")
+    void generateJooq(SyntheticSchema schema) throws IOException {
+        File migrationsDir = new File(testProjectDir, "src/main/resources/db/migration");
+        schema.writeMigrations(migrationsDir);
+        write(new File(testProjectDir, "settings.gradle"), "rootProject.name = 'benchmark'\n");
+        write(new File(testProjectDir, "build.gradle"), """
+                plugins {
+                    // the plugin adds its runtime to the implementation dependencies of the java plugin
+                    id 'java'
+                    id 'io.github.alexritian.codegen-gradle-plugin'
+                }
+
+                repositories {
+                    mavenLocal()
+                    mavenCentral()
+                }
+
+                dependencies {
+                    jooqGenerator 'org.postgresql:postgresql:42.7.4'
+                }
+
+                """ + schema.jooqConfiguration(source()));
+
+        List<String> results = new ArrayList<>();
+        // a fresh TestKit directory starts a new daemon for the first build
+        results.add(run("cold", TaskOutcome.SUCCESS));
+        results.add(run("warmDaemon", TaskOutcome.SUCCESS, "--rerun"));
+        results.add(run("upToDate", TaskOutcome.UP_TO_DATE));
+        schema.writeAdditionalMigration(migrationsDir);
+        results.add(run("migrationAdded", TaskOutcome.SUCCESS));
+
+        File resultsDir = new File(System.getProperty("benchmark.resultsDir", "build/benchmark-results"));
+        Files.createDirectories(resultsDir.toPath());
+        write(new File(resultsDir, schema.name().toLowerCase() + ".json"), "{\n"
+                + "  \"schema\": \"" + schema.name().toLowerCase() + "\",\n"
+                + "  \"source\": \"" + source() + "\",\n"
+                + "  \"tables\": " + schema.getTables() + ",\n"
+                + "  \"columnsPerTable\": " + schema.getColumns() + ",\n"
+                + "  \"scenarios\": [\n" + String.join(",\n", results) + "\n  ]\n}\n");
+    }
+
+    private String run(String scenario, TaskOutcome expectedOutcome, String... arguments) throws IOException {
+        List<String> args = new ArrayList<>(List.of(TASK, "--stacktrace"));
+        args.addAll(List.of(arguments));
+
+        long start = System.nanoTime();
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withTestKitDir(testKitDir)
+                .withPluginClasspath()
+                .withArguments(args)
+                .build();
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+        TaskOutcome outcome = result.task(TASK).getOutcome();
+        assertEquals(expectedOutcome, outcome, scenario);
+
+        // an up-to-date task leaves the report of the previous run in place
+        String report = "null";
+        File reportFile = new File(testProjectDir, "build/reports/jooq-codegen/generateJooq.json");
+        if (outcome == TaskOutcome.SUCCESS && reportFile.isFile()) {
+            report = Files.readString(reportFile.toPath(), StandardCharsets.UTF_8).strip().replace("\n", "\n      ");
+        }
+        return "    {\n"
+                + "      \"scenario\": \"" + scenario + "\",\n"
+                + "      \"outcome\": \"" + outcome + "\",\n"
+                + "      \"wallMillis\": " + wallMillis + ",\n"
+                + "      \"report\": " + report + "\n"
+                + "    }";
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
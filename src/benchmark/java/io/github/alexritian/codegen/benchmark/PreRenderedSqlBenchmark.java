@@ -0,0 +1,247 @@
+package io.github.alexritian.codegen.benchmark;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the CPU time and the allocations per call of the DAO generated with {@code preRenderedSql} against the DAO
+ * jOOQ generates, which renders its SQL through {@code DAOImpl}. Both DAOs are generated from the same table and run on
+ * a mock connection, so the database round trip, which both pay alike, is left out. The results are written to
+ * {@code <benchmark.resultsDir>/pre-rendered-sql.json}. No Docker is needed.
+ *
+ * @author Too_young
+ */
+class PreRenderedSqlBenchmark {
+    private static final String ARTICLE = """
+            CREATE TABLE article (
+                id int4 PRIMARY KEY,
+                slug varchar(50) NOT NULL,
+                author varchar(50) NOT NULL,
+                title varchar(100) NOT NULL,
+                status varchar(10) NOT NULL,
+                views int4 NOT NULL,
+                published timestamp NULL
+            );
+            """;
+
+    // the main configuration generates the pre-rendered DAO, the test configuration the DAO of jOOQ into the test sources
+    private static final String BUILD = """
+            plugins {
+                id 'java'
+                id 'io.github.alexritian.codegen-gradle-plugin'
+            }
+
+            repositories {
+                mavenLocal()
+                mavenCentral()
+            }
+
+            dependencies {
+                implementation 'org.springframework:spring-context:6.1.14'
+                testImplementation platform('org.junit:junit-bom:5.10.3')
+                testImplementation 'org.junit.jupiter:junit-jupiter'
+                testRuntimeOnly 'org.junit.platform:junit-platform-launcher'
+            }
+
+            jooq {
+                configurations {
+                    main {
+                        database {
+                            schema = 'public'
+                            source = 'ddl'
+                        }
+                        output {
+                            packageName = 'org.moonlit.prerendered'
+                            preRenderedSql = true
+                        }
+                    }
+                    test {
+                        database {
+                            schema = 'public'
+                            source = 'ddl'
+                        }
+                        output {
+                            packageName = 'org.moonlit.plain'
+                            directory = 'build/generated/source/jooq-plain'
+                        }
+                    }
+                }
+            }
+
+            test {
+                useJUnitPlatform()
+                maxHeapSize = '1g'
+                systemProperty 'benchmark.results', file('build/pre-rendered-sql.json').absolutePath
+                testLogging.showStandardStreams = true
+            }
+            """;
+
+    // both DAOs are called alternately in every round, so neither profits from running after the other was compiled
+    private static final String DAO_BENCHMARK = """
+            import org.jooq.*;
+            import org.jooq.Record;
+            import org.jooq.impl.*;
+            import org.jooq.tools.jdbc.*;
+            import org.junit.jupiter.api.Test;
+
+            import java.lang.management.ManagementFactory;
+            import java.nio.file.Files;
+            import java.nio.file.Path;
+            import java.time.LocalDateTime;
+            import java.util.ArrayList;
+            import java.util.Arrays;
+            import java.util.List;
+            import java.util.function.Consumer;
+
+            class DaoBenchmark {
+                private static final int CALLS = 20_000;
+                private static final int WARMUP_ROUNDS = 5;
+                private static final int ROUNDS = 10;
+                private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+                @Test
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                void compareDaos() throws Exception {
+                    DAOImpl plain = dao("%s");
+                    DAOImpl preRendered = dao("%s");
+                    List<String> operations = new ArrayList<>();
+                    List<String> slower = new ArrayList<>();
+                    for (String operation : List.of("findById", "fetchByAuthor", "insert", "update")) {
+                        Consumer<DAOImpl> call = call(operation);
+                        long[][] nanos = new long[2][ROUNDS];
+                        long[][] bytes = new long[2][ROUNDS];
+                        for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+                            for (int dao = 0; dao < 2; dao++) {
+                                DAOImpl target = dao == 0 ? plain : preRendered;
+                                long allocated = THREADS.getCurrentThreadAllocatedBytes();
+                                long start = THREADS.getCurrentThreadCpuTime();
+                                for (int i = 0; i < CALLS; i++) {
+                                    call.accept(target);
+                                }
+                                if (round >= 0) {
+                                    nanos[dao][round] = (THREADS.getCurrentThreadCpuTime() - start) / CALLS;
+                                    bytes[dao][round] = (THREADS.getCurrentThreadAllocatedBytes() - allocated) / CALLS;
+                                }
+                            }
+                        }
+                        operations.add("    {\\"operation\\": \\"" + operation + "\\", \\"daoImplCpuNanos\\": " + median(nanos[0])
+                                + ", \\"preRenderedCpuNanos\\": " + median(nanos[1]) + ", \\"daoImplBytes\\": " + median(bytes[0])
+                                + ", \\"preRenderedBytes\\": " + median(bytes[1]) + "}");
+                        if (median(nanos[1]) >= median(nanos[0])) {
+                            slower.add(operation);
+                        }
+                    }
+                    String results = "{\\n  \\"callsPerRound\\": " + CALLS + ",\\n  \\"rounds\\": " + ROUNDS + ",\\n  \\"operations\\": [\\n"
+                            + String.join(",\\n", operations) + "\\n  ]\\n}\\n";
+                    Files.writeString(Path.of(System.getProperty("benchmark.results")), results);
+                    System.out.println(results);
+                    // the pre-rendered DAO only pays off while it takes less CPU time than the DAO of jOOQ
+                    if (!slower.isEmpty()) {
+                        throw new AssertionError("The pre-rendered DAO takes more CPU time than DAOImpl for " + slower);
+                    }
+                }
+
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                private static Consumer<DAOImpl> call(String operation) {
+                    return switch (operation) {
+                        case "findById" -> dao -> dao.findById(1);
+                        case "fetchByAuthor" -> dao -> dao.fetch(dao.getTable().field("author"), "ann", "bob", "eve");
+                        case "insert" -> dao -> dao.insert(article(dao));
+                        default -> dao -> dao.update(article(dao));
+                    };
+                }
+
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                private static DAOImpl dao(String type) throws Exception {
+                    Class<?> daoType = Class.forName(type);
+                    Table<?> table = ((DAOImpl) daoType.getConstructor().newInstance()).getTable();
+                    Result<Record> rows = DSL.using(SQLDialect.POSTGRES).newResult(table.fields());
+                    rows.add(row(DSL.using(SQLDialect.POSTGRES).newRecord(table.fields())));
+                    // every statement is answered with one row of the table
+                    MockConnection connection = new MockConnection(ctx -> new MockResult[]{new MockResult(1, rows)});
+                    return (DAOImpl) daoType.getConstructor(Configuration.class).newInstance(new DefaultConfiguration()
+                            .set(connection)
+                            .set(SQLDialect.POSTGRES));
+                }
+
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                private static Object article(DAOImpl dao) {
+                    return row(dao.ctx().newRecord(dao.getTable())).into(dao.getType());
+                }
+
+                @SuppressWarnings("unchecked")
+                private static <R extends Record> R row(R record) {
+                    record.set((Field<Integer>) record.field("id"), 1);
+                    record.set((Field<String>) record.field("slug"), "pre-rendered-sql");
+                    record.set((Field<String>) record.field("author"), "ann");
+                    record.set((Field<String>) record.field("title"), "Pre-rendered SQL");
+                    record.set((Field<String>) record.field("status"), "draft");
+                    record.set((Field<Integer>) record.field("views"), 42);
+                    record.set((Field<LocalDateTime>) record.field("published"), LocalDateTime.of(2024, 1, 1, 12, 0));
+                    return record;
+                }
+
+                private static long median(long[] values) {
+                    long[] sorted = values.clone();
+                    Arrays.sort(sorted);
+                    return sorted[sorted.length / 2];
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void preRenderedSql() throws IOException {
+        write(new File(testProjectDir, "settings.gradle"), "rootProject.name = 'benchmark'\n");
+        write(new File(testProjectDir, "build.gradle"), BUILD);
+        write(new File(testProjectDir, "src/main/resources/db/migration/V1__init.sql"), ARTICLE);
+        GradleRunner runner = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withPluginClasspath();
+        assertEquals(TaskOutcome.SUCCESS, runner.withArguments("generateJooq", "generateTestJooq").build().task(":generateJooq").getOutcome());
+
+        write(new File(testProjectDir, "src/test/java/DaoBenchmark.java"), DAO_BENCHMARK.formatted(
+                dao("build/generated/source/jooq-plain"), dao("build/generated/source/jooq")));
+        BuildResult result = runner.withArguments("test").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":test").getOutcome());
+
+        File resultsDir = new File(System.getProperty("benchmark.resultsDir", "build/benchmark-results"));
+        Files.createDirectories(resultsDir.toPath());
+        Files.copy(testProjectDir.toPath().resolve("build/pre-rendered-sql.json"), resultsDir.toPath().resolve("pre-rendered-sql.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+        System.out.println(Files.readString(resultsDir.toPath().resolve("pre-rendered-sql.json")));
+    }
+
+    /**
+     * @return the name of the DAO class generated into the given directory
+     */
+    private String dao(String directory) throws IOException {
+        Path outputDir = testProjectDir.toPath().resolve(directory);
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            return outputDir.relativize(files.filter(file -> file.toString().endsWith("ArticleDao.java")).findFirst().orElseThrow())
+                    .toString()
+                    .replaceFirst("\\.java$", "")
+                    .replace(File.separatorChar, '.');
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.alexritian.codegen.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * A generated Flyway history of a given size, written as one migration script per {@link #TABLES_PER_SCRIPT} tables.
+ *
+ * @author Too_young
+ */
+public enum SyntheticSchema {
+    SMALL(10, 12, 0),
+    MEDIUM(500, 12, 0),
+    LARGE(5_000, 12, 0),
+    WIDE(50, 400, 0),
+    // the size the adaptive heap estimate is calibrated against, not run by default
+    XLARGE(4_000, 10, 0),
+    FORCED_TYPES(500, 12, 200);
+
+    static final String SCHEMA = "benchmark";
+    private static final int TABLES_PER_SCRIPT = 100;
+
+    private final int tables;
+    private final int columns;
+    private final int jsonbForcedTypes;
+
+    SyntheticSchema(int tables, int columns, int jsonbForcedTypes) {
+        this.tables = tables;
+        this.columns = columns;
+        this.jsonbForcedTypes = jsonbForcedTypes;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Writes the migration scripts of this schema into the given directory.
+     */
+    public void writeMigrations(File migrationsDir) throws IOException {
+        Files.createDirectories(migrationsDir.toPath());
+        // Flyway creates the configured schema before the first migration, the script keeps the history runnable without it
+        write(new File(migrationsDir, "V1__schema.sql"), "CREATE SCHEMA IF NOT EXISTS " + SCHEMA + ";\n");
+        for (int script = 0; script * TABLES_PER_SCRIPT < tables; script++) {
+            StringBuilder sql = new StringBuilder();
+            int end = Math.min(tables, (script + 1) * TABLES_PER_SCRIPT);
+            for (int table = script * TABLES_PER_SCRIPT; table < end; table++) {
+                appendTable(sql, table);
+            }
+            write(new File(migrationsDir, "V" + (script + 2) + "__tables_" + script + ".sql"), sql.toString());
+        }
+    }
+
+    /**
+     * Writes a migration that adds a column to the first table, following the scripts of {@link #writeMigrations}.
+     */
+    public void writeAdditionalMigration(File migrationsDir) throws IOException {
+        int version = (tables + TABLES_PER_SCRIPT - 1) / TABLES_PER_SCRIPT + 2;
+        write(new File(migrationsDir, "V" + version + "__add_column.sql"),
+                "ALTER TABLE " + SCHEMA + "." + tableName(0) + " ADD COLUMN added_column varchar NULL;\n");
+    }
+
+    /**
+     * @param source the schema source, {@code container} or {@code ddl}
+     * @return the body of the {@code jooq} block configuring the generation of this schema
+     */
+    public String jooqConfiguration(String source) {
+        StringBuilder forcedTypes = new StringBuilder("                timestamptzToInstant()");
+        for (int table = 0; table < Math.min(jsonbForcedTypes, tables); table++) {
+            forcedTypes.append("\n                jsonbToMap('").append(SCHEMA).append("\\\\.").append(tableName(table)).append("\\\\.payload')");
+        }
+        return """
+                jooq {
+                    // the reports record the estimated heap next to the peak heap the generator used
+                    generatorJvm {
+                        adaptive = true
+                    }
+                    configurations {
+                        main {
+                            database {
+                                schema = '%s'
+                                source = '%s'
+                                includes = '.*'
+                            }
+                            output {
+                                packageName = 'io.github.alexritian.codegen.benchmark.generated'
+                            }
+                            forcedTypes {
+                %s
+                            }
+                        }
+                    }
+                }
+                """.formatted(SCHEMA, source, forcedTypes);
+    }
+
+    private void appendTable(StringBuilder sql, int table) {
+        sql.append("CREATE TABLE ").append(SCHEMA).append('.').append(tableName(table)).append(" (\n")
+                .append("    id bigserial NOT NULL,\n")
+                .append("    created_at timestamptz NOT NULL,\n")
+                .append("    payload jsonb NULL,\n");
+        // the remaining columns cycle through the common types
+        for (int column = 3; column < columns; column++) {
+            sql.append("    c").append(column).append(' ').append(columnType(column)).append(" NULL,\n");
+        }
+        sql.append("    CONSTRAINT ").append(tableName(table)).append("_pk PRIMARY KEY (id)\n")
+                .append(");\n");
+    }
+
+    private static String columnType(int column) {
+        return switch (column % 6) {
+            case 0 -> "varchar(255)";
+            case 1 -> "int4";
+            case 2 -> "numeric(12,2)";
+            case 3 -> "timestamptz";
+            case 4 -> "bool";
+            default -> "text";
+        };
+    }
+
+    private static String tableName(int table) {
+        return "t" + table;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
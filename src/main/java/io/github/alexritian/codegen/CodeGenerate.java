@@ -7,13 +7,15 @@ import nu.studer.gradle.jooq.JooqConfig;
 import nu.studer.gradle.jooq.util.Gradles;
 import nu.studer.gradle.jooq.util.Objects;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
 import org.gradle.api.*;
 import org.gradle.api.file.Directory;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileSystemOperations;
 import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
-import org.gradle.api.plugins.ExtensionContainer;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
@@ -22,21 +24,75 @@ import org.gradle.api.tasks.*;
 import org.gradle.process.ExecOperations;
 import org.gradle.process.ExecResult;
 import org.gradle.process.JavaExecSpec;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.work.NormalizeLineEndings;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
 import org.jooq.codegen.GenerationTool;
+import org.jooq.impl.DSL;
 import org.jooq.meta.jaxb.*;
 import org.jooq.tools.StringUtils;
+import org.jooq.util.xml.jaxb.InformationSchema;
+import io.github.alexritian.codegen.containers.DatabaseLease;
 import io.github.alexritian.codegen.containers.PostgresServer;
+import io.github.alexritian.codegen.generator.CodegenJavaGenerator;
+import io.github.alexritian.codegen.migration.MigrationParser;
+import io.github.alexritian.codegen.migration.MigrationScripts;
+import io.github.alexritian.codegen.migration.MigrationValidation;
+import io.github.alexritian.codegen.schema.DdlSchemaSource;
+import io.github.alexritian.codegen.schema.SchemaSource;
+import io.github.alexritian.codegen.schema.SchemaSourceType;
+import io.github.alexritian.codegen.schema.UnsupportedSchemaException;
 import org.xml.sax.SAXException;
 
 import javax.inject.Inject;
 import javax.xml.XMLConstants;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static nu.studer.gradle.jooq.util.Objects.cloneObject;
 
@@ -45,36 +101,112 @@ import static nu.studer.gradle.jooq.util.Objects.cloneObject;
  */
 @CacheableTask
 public abstract class CodeGenerate extends DefaultTask {
-    private final Boolean useContainer;
+    private final Property<Boolean> useContainer;
+    private final Property<Boolean> prewarmContainer;
     private final Configuration jooqConfiguration;
     private final Provider<String> normalizedJooqConfigurationHash;
     private final FileCollection runtimeClasspath;
     private final Provider<Directory> outputDir;
+    private final DirectoryProperty migrationsDir;
+    private final Property<String> containerImage;
+    private final Property<SchemaSourceType> schemaSource;
+    private final Property<Boolean> fallbackToContainer;
+    private final Property<Boolean> schemaSnapshotEnabled;
+    private final DirectoryProperty schemaSnapshotDir;
+    private final Property<Boolean> migrationCheckpoints;
+    private final Property<GeneratorExecution> execution;
+    private final RegularFileProperty reportFile;
+    private final Property<Boolean> watch;
+    private final Property<Boolean> incremental;
+    private final DirectoryProperty incrementalStateDir;
+    private final RegularFileProperty migrationHistoryFile;
+    private final Property<Integer> shards;
+    private final Property<Integer> maxParallelShards;
+    private final Property<Boolean> recordMappers;
+    private final Property<Boolean> preRenderedSql;
+    private final Property<Boolean> copyWriters;
+    private final Property<Boolean> indexedFinders;
+    private final Property<Boolean> asyncDaos;
+    private final Property<MigrationValidation> migrationValidation;
+    private final Property<Boolean> adaptiveJvm;
+    private final Property<String> generatorMaxHeapSize;
+    private final Property<Boolean> gcLog;
+    private final Property<Boolean> classDataSharing;
+    private final DirectoryProperty classDataSharingDir;
     private final Property<Boolean> allInputsDeclared;
+    private final Provider<Boolean> usesPooledContainer;
 
     private Action<? super Configuration> generationToolNormalization;
     private Action<? super JavaExecSpec> javaExecSpec;
+    private Action<? super JavaForkOptions> workerForkOptions;
     private Action<? super ExecResult> execResultHandler;
 
     private final ProjectLayout projectLayout;
     private final ExecOperations execOperations;
     private final FileSystemOperations fileSystemOperations;
+    private final WorkerExecutor workerExecutor;
+
+    private static final String SCHEMA_SNAPSHOT_SUFFIX = ".xml";
+    private static final long WATCH_SETTLE_MILLIS = 300;
+    private static final String INCREMENTAL_INPUTS_FILE = "inputs.txt";
+    private static final Set<String> DEFAULT_GENERATORS = Set.of("org.jooq.codegen.DefaultGenerator", "org.jooq.codegen.JavaGenerator");
+
+    private CodegenMetrics metrics;
+    private DatabaseLease databaseLease;
+    private Long generatorHeapMegabytes;
+    private Long generatorHeapEstimate;
+    private PostgreSQLContainer<?> checkpointContainer;
+    private String startedCheckpoint;
+    private String latestCheckpoint;
 
     private static final Action<Configuration> OUTPUT_DIRECTORY_NORMALIZATION = c -> c.getGenerator().getTarget().setDirectory(null);
 
     @Inject
-    public CodeGenerate(Boolean useContainer, JooqConfig config, FileCollection runtimeClasspath, ExtensionContainer extensions, ObjectFactory objects, ProviderFactory providers,
-                        ProjectLayout projectLayout, ExecOperations execOperations, FileSystemOperations fileSystemOperations) {
-        this.useContainer = useContainer;
+    public CodeGenerate(JooqConfig config, FileCollection runtimeClasspath, ObjectFactory objects, ProviderFactory providers,
+                        ProjectLayout projectLayout, ExecOperations execOperations, FileSystemOperations fileSystemOperations, WorkerExecutor workerExecutor) {
+        this.useContainer = objects.property(Boolean.class).convention(Boolean.TRUE);
+        this.prewarmContainer = objects.property(Boolean.class).convention(Boolean.FALSE);
         this.jooqConfiguration = config.getJooqConfiguration();
         this.normalizedJooqConfigurationHash = normalizedJooqConfigurationHash(objects, providers);
         this.runtimeClasspath = objects.fileCollection().from(runtimeClasspath);
         this.outputDir = objects.directoryProperty().value(config.getOutputDir());
-        this.allInputsDeclared = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.migrationsDir = objects.directoryProperty().convention(projectLayout.getProjectDirectory().dir("src/main/resources/db/migration"));
+        this.containerImage = objects.property(String.class);
+        this.schemaSource = objects.property(SchemaSourceType.class).convention(SchemaSourceType.CONTAINER);
+        this.fallbackToContainer = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.schemaSnapshotEnabled = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.schemaSnapshotDir = objects.directoryProperty();
+        this.migrationCheckpoints = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.execution = objects.property(GeneratorExecution.class).convention(GeneratorExecution.JAVA_EXEC);
+        this.watch = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.incremental = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.incrementalStateDir = objects.directoryProperty();
+        this.migrationHistoryFile = objects.fileProperty();
+        this.shards = objects.property(Integer.class).convention(1);
+        this.maxParallelShards = objects.property(Integer.class).convention(Runtime.getRuntime().availableProcessors());
+        this.recordMappers = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.preRenderedSql = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.copyWriters = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.indexedFinders = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.asyncDaos = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.migrationValidation = objects.property(MigrationValidation.class).convention(MigrationValidation.LENIENT);
+        this.adaptiveJvm = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.generatorMaxHeapSize = objects.property(String.class).convention("8g");
+        this.gcLog = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.classDataSharing = objects.property(Boolean.class).convention(Boolean.FALSE);
+        this.classDataSharingDir = objects.directoryProperty().convention(projectLayout.getBuildDirectory().dir("jooq-cds"));
+        this.reportFile = objects.fileProperty().convention(projectLayout.getBuildDirectory().file("reports/jooq-codegen/" + getName() + ".json"));
+        // the schema is fully described by the declared inputs when it is built from the migration scripts
+        this.allInputsDeclared = objects.property(Boolean.class).convention(providers.provider(() ->
+                usesMigrationScripts() && (jooqConfiguration.getJdbc() == null || StringUtils.isBlank(jooqConfiguration.getJdbc().getUrl()))));
+        // snapshots and checkpoints decide about a container only when the task runs
+        this.usesPooledContainer = providers.provider(() -> allInputsDeclared.get() && useContainer.get()
+                && schemaSource.get() == SchemaSourceType.CONTAINER && !schemaSnapshotEnabled.get() && !migrationCheckpoints.get() && !watch.get());
 
         this.projectLayout = projectLayout;
         this.execOperations = execOperations;
         this.fileSystemOperations = fileSystemOperations;
+        this.workerExecutor = workerExecutor;
 
         // do not use lambda due to a bug in Gradle 6.5
         getOutputs().upToDateWhen(new Spec<Task>() {
@@ -109,16 +241,228 @@ public abstract class CodeGenerate extends DefaultTask {
         return runtimeClasspath;
     }
 
+    @Input
+    public Property<Boolean> getUseContainer() {
+        return useContainer;
+    }
+
+    /**
+     * @return whether the container is started in the background as soon as the generation runs
+     */
+    @Internal
+    public Property<Boolean> getPrewarmContainer() {
+        return prewarmContainer;
+    }
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    @IgnoreEmptyDirectories
+    @NormalizeLineEndings
+    public DirectoryProperty getMigrationsDir() {
+        return migrationsDir;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getContainerImage() {
+        return containerImage;
+    }
+
     @OutputDirectory
     public Provider<Directory> getOutputDir() {
         return outputDir;
     }
 
+    @Input
+    public Property<SchemaSourceType> getSchemaSource() {
+        return schemaSource;
+    }
+
+    @Input
+    public Property<Boolean> getFallbackToContainer() {
+        return fallbackToContainer;
+    }
+
+    @Input
+    public Property<Boolean> getSchemaSnapshotEnabled() {
+        return schemaSnapshotEnabled;
+    }
+
+    @Internal
+    public DirectoryProperty getSchemaSnapshotDir() {
+        return schemaSnapshotDir;
+    }
+
+    /**
+     * @return how strictly the migration scripts are checked before a database is started for them
+     */
+    @Internal
+    public Property<MigrationValidation> getMigrationValidation() {
+        return migrationValidation;
+    }
+
+    @Internal
+    public Property<Boolean> getMigrationCheckpoints() {
+        return migrationCheckpoints;
+    }
+
+    @Internal
+    public Property<GeneratorExecution> getExecution() {
+        return execution;
+    }
+
+    /**
+     * @return whether the generator JVM is sized from the schema and tuned for a short-lived batch job
+     */
+    @Internal
+    public Property<Boolean> getAdaptiveJvm() {
+        return adaptiveJvm;
+    }
+
+    /**
+     * @return the largest heap the estimate of an adaptive generator JVM goes up to
+     */
+    @Internal
+    public Property<String> getGeneratorMaxHeapSize() {
+        return generatorMaxHeapSize;
+    }
+
+    /**
+     * @return whether a forked generator JVM logs its garbage collections next to the report
+     */
+    @Internal
+    public Property<Boolean> getGcLog() {
+        return gcLog;
+    }
+
+    /**
+     * @return whether a forked generator JVM shares the classes of the generator classpath from an archive
+     */
+    @Internal
+    public Property<Boolean> getClassDataSharing() {
+        return classDataSharing;
+    }
+
+    /**
+     * @return the directory holding the class data sharing archives, one per JVM and generator classpath
+     */
+    @Internal
+    public DirectoryProperty getClassDataSharingDir() {
+        return classDataSharingDir;
+    }
+
+    /**
+     * @return the JSON report with the phase timings and sizes of the last generation
+     */
+    @OutputFile
+    public RegularFileProperty getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * @return whether only the classes of the tables that changed since the last run are generated
+     */
+    @Input
+    public Property<Boolean> getIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @return the directory holding the catalog fingerprints of the last run, for incremental generation
+     */
+    @LocalState
+    public DirectoryProperty getIncrementalStateDir() {
+        return incrementalStateDir;
+    }
+
+    /**
+     * @return the file holding the versions of the migration scripts seen by the last validation, to report scripts
+     * added out of order
+     */
+    @LocalState
+    public RegularFileProperty getMigrationHistoryFile() {
+        return migrationHistoryFile;
+    }
+
+    /**
+     * @return the number of generator runs the tables are split across, which run in parallel
+     */
+    @Internal
+    public Property<Integer> getShards() {
+        return shards;
+    }
+
+    /**
+     * @return the number of generator JVMs of a sharded generation that run at the same time, each holding the whole
+     * catalog
+     */
+    @Internal
+    public Property<Integer> getMaxParallelShards() {
+        return maxParallelShards;
+    }
+
+    /**
+     * @return whether reflection-free mappers between the records and the POJOs are generated
+     */
+    @Input
+    public Property<Boolean> getRecordMappers() {
+        return recordMappers;
+    }
+
+    /**
+     * @return whether the DAOs run their basic operations as SQL rendered at generation time
+     */
+    @Input
+    public Property<Boolean> getPreRenderedSql() {
+        return preRenderedSql;
+    }
+
+    /**
+     * @return whether a writer streaming the records of every table through a binary {@code COPY} is generated
+     */
+    @Input
+    public Property<Boolean> getCopyWriters() {
+        return copyWriters;
+    }
+
+    /**
+     * @return whether the DAOs only get the finders their indexes serve
+     */
+    @Input
+    public Property<Boolean> getIndexedFinders() {
+        return indexedFinders;
+    }
+
+    /**
+     * @return whether every DAO gets an asynchronous variant
+     */
+    @Input
+    public Property<Boolean> getAsyncDaos() {
+        return asyncDaos;
+    }
+
+    /**
+     * @return whether the task keeps running after the generation and regenerates the sources whenever the migration
+     * scripts change
+     */
+    @Internal
+    public Property<Boolean> getWatch() {
+        return watch;
+    }
+
     @Internal
     public Property<Boolean> getAllInputsDeclared() {
         return allInputsDeclared;
     }
 
+    /**
+     * @return whether the generation migrates a database leased from the pooled container
+     */
+    @Internal
+    public Provider<Boolean> getUsesPooledContainer() {
+        return usesPooledContainer;
+    }
+
     @Internal
     public Action<? super JavaExecSpec> getJavaExecSpec() {
         return javaExecSpec;
@@ -129,6 +473,16 @@ public abstract class CodeGenerate extends DefaultTask {
         this.javaExecSpec = javaExecSpec;
     }
 
+    @Internal
+    public Action<? super JavaForkOptions> getWorkerForkOptions() {
+        return workerForkOptions;
+    }
+
+    @SuppressWarnings("unused")
+    public void setWorkerForkOptions(Action<? super JavaForkOptions> workerForkOptions) {
+        this.workerForkOptions = workerForkOptions;
+    }
+
     @Internal
     public Action<? super ExecResult> getExecResultHandler() {
         return execResultHandler;
@@ -154,41 +508,572 @@ public abstract class CodeGenerate extends DefaultTask {
 
     @TaskAction
     public void generate() {
+        try {
+            // the configured model stays untouched, the run only modifies its own copy
+            generate(cloneObject(jooqConfiguration));
+            if (watch.get()) {
+                watchMigrations();
+            }
+        } finally {
+            // hand the database back to the pool for the next task
+            if (databaseLease != null) {
+                databaseLease.close();
+                databaseLease = null;
+            }
+        }
+    }
+
+    private void generate(Configuration configuration) {
+        startMetrics(configuration);
+
         // only configure the container for jooq configuration domain where the jdbc url is blank
-        if (useContainer && StringUtils.isBlank(jooqConfiguration.getJdbc().getUrl())) {
-            // start database container
-            startContainer();
-            // migrate data to database
-            migrateDatabase();
-            // exclude flyway tables
-            jooqConfiguration.getGenerator().getDatabase().setExcludes("flyway_.* | " +
-                    jooqConfiguration.getGenerator().getDatabase().getExcludes());
+        if (usesMigrationScripts() && StringUtils.isBlank(configuration.getJdbc().getUrl())) {
+            // the container starts while the scripts are validated, and the lease only waits for the rest of the startup
+            if (prewarmContainer.get() && usesPooledContainer.get()) {
+                getServer().get().prewarm();
+            }
+            metrics.put("schemaSource", schemaSource.get().name());
+            metrics.time("migrationValidation", this::validateMigrations);
+            applySchemaSource(configuration);
+            excludeFlywayTables(configuration);
         }
 
+        generateSources(configuration);
+    }
+
+    private void startMetrics(Configuration configuration) {
+        metrics = new CodegenMetrics(getPath());
+        metrics.put("execution", execution.get().name());
+        metrics.forcedTypes(configuration.getGenerator().getDatabase().getForcedTypes().size());
+    }
+
+    private static void excludeFlywayTables(Configuration configuration) {
+        configuration.getGenerator().getDatabase().setExcludes("flyway_.* | " +
+                configuration.getGenerator().getDatabase().getExcludes());
+    }
+
+    private void generateSources(Configuration configuration) {
         // abort if cleaning of output directory is disabled
-        ensureTargetIsCleaned(jooqConfiguration);
+        ensureTargetIsCleaned(configuration);
 
         // avoid excessive and/or schema-violating XML being created due to the serialization of default values
-        trimConfiguration(jooqConfiguration);
+        trimConfiguration(configuration);
+
+        // generate into a staging directory, the output directory only receives the files that changed
+        File stagingDir = new File(getTemporaryDir(), "staging");
+        configuration.getGenerator().getTarget().setDirectory(stagingDir.getAbsolutePath());
+
+        // clean staging directory to ensure no stale files are still around
+        fileSystemOperations.delete(spec -> spec.delete(stagingDir));
+
+        enableGeneratorFeature(configuration, recordMappers, "Record mapper generation", CodegenJavaGenerator.RECORD_MAPPERS_PROPERTY);
+        enableGeneratorFeature(configuration, preRenderedSql, "Pre-rendered DAO SQL", CodegenJavaGenerator.PRE_RENDERED_SQL_PROPERTY);
+        enableGeneratorFeature(configuration, copyWriters, "Copy writer generation", CodegenJavaGenerator.COPY_WRITERS_PROPERTY);
+        File finderReport = new File(getTemporaryDir(), "unindexed-finders.txt");
+        boolean indexedFindersRun = enableGeneratorFeature(configuration, indexedFinders, "Index-aware DAO finders", CodegenJavaGenerator.INDEXED_FINDERS_PROPERTY);
+        if (indexedFindersRun) {
+            fileSystemOperations.delete(spec -> spec.delete(finderReport));
+            configuration.getGenerator().getDatabase().getProperties().add(new org.jooq.meta.jaxb.Property()
+                    .withKey(CodegenJavaGenerator.FINDER_REPORT_PROPERTY)
+                    .withValue(finderReport.getAbsolutePath()));
+        }
+        enableGeneratorFeature(configuration, asyncDaos, "Async DAO generation", CodegenJavaGenerator.ASYNC_DAOS_PROPERTY);
+        File stateDir = incrementalStateDir.get().getAsFile();
+        boolean incrementalRun = prepareIncrementalGeneration(configuration, stateDir);
+        List<Configuration> shardConfigurations = shardConfigurations(configuration, stagingDir);
+        generatorHeapMegabytes = generatorHeapMegabytes(shardConfigurations.size());
+
+        // every generator run reports its memory and garbage collection statistics to a file of its own
+        List<File> statisticsFiles = new ArrayList<>();
+        for (int shard = 0; shard < shardConfigurations.size(); shard++) {
+            statisticsFiles.add(new File(getTemporaryDir(), "generator-statistics-" + shard + ".properties"));
+        }
+        fileSystemOperations.delete(spec -> spec.delete(statisticsFiles));
+
+        if (execution.get() != GeneratorExecution.JAVA_EXEC) {
+            // hand the configurations to workers, which generate the jOOQ Java source files without forking a JVM
+            List<String> configurationXmls = metrics.time("writeConfiguration", () -> shardConfigurations.stream().map(shard -> {
+                ByteArrayOutputStream xml = new ByteArrayOutputStream();
+                writeConfiguration(shard, xml);
+                return xml.toString(StandardCharsets.UTF_8);
+            }).toList());
+            // the shards of a full queue are awaited while the rest are submitted, which is part of the generation
+            metrics.time("executeJooq", () -> submitJooq(configurationXmls, statisticsFiles).await());
+        } else {
+            // define the config files to which the jOOQ code generation configurations are written to
+            List<File> configFiles = new ArrayList<>();
+            for (int shard = 0; shard < shardConfigurations.size(); shard++) {
+                configFiles.add(new File(getTemporaryDir(), shard == 0 ? "config.xml" : "config-" + shard + ".xml"));
+            }
+
+            // write jOOQ code generation configurations to config files
+            metrics.time("writeConfiguration", () -> {
+                for (int shard = 0; shard < shardConfigurations.size(); shard++) {
+                    writeConfiguration(shardConfigurations.get(shard), configFiles.get(shard));
+                }
+            });
+
+            // generate the jOOQ Java sources files using the written config files
+            List<ExecResult> execResults = metrics.time("executeJooq", () -> executeJooq(configFiles, statisticsFiles));
+
+            // invoke custom result handler
+            if (execResultHandler != null) {
+                execResults.forEach(execResultHandler::execute);
+            }
+        }
+        statisticsFiles.forEach(metrics::generator);
+        if (indexedFindersRun) {
+            recordOmittedFinderColumns(finderReport);
+        }
+        if (shardConfigurations.size() > 1) {
+            metrics.time("shardMerge", () -> mergeShards(stagingDir, shardConfigurations.size()));
+        }
+
+        // replace only the changed files to keep the timestamps of unchanged sources for incremental compilation
+        Set<String> retained = incrementalRun ? readRetainedFiles(stateDir) : Set.of();
+        metrics.output(metrics.time("outputSync", () -> syncOutput(stagingDir, retained)));
+        if (incrementalRun) {
+            completeIncrementalGeneration(stateDir);
+        }
+
+        metrics.write(reportFile.get().getAsFile());
+    }
+
+    private void watchMigrations() {
+        if (!usesMigrationScripts() || !StringUtils.isBlank(jooqConfiguration.getJdbc().getUrl())) {
+            throw new GradleException("Watching requires the schema to be built from the migration scripts.");
+        }
+        File directory = migrationsDir.get().getAsFile();
+        MigrationScripts applied = MigrationScripts.scan(directory);
+        getLogger().lifecycle("Watching {} for changed migration scripts, stop with Ctrl+C", directory);
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            // cancelling the build, e.g. with Ctrl+C, interrupts the task, which ends the watch
+            while (!Thread.currentThread().isInterrupted()) {
+                registerDirectories(watchService, directory.toPath());
+                WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+                if (key == null) {
+                    continue;
+                }
+                // editors save in several steps, wait until the scripts settle before reading them
+                while (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                    key = watchService.poll(WATCH_SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                applied = regenerate(applied, directory);
+            }
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        getLogger().lifecycle("Stopped watching {}", directory);
+    }
+
+    private static void registerDirectories(WatchService watchService, Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        // registering a directory again returns its existing key, so new subdirectories are picked up on every round
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * Regenerates the sources for the current migration scripts. The database of the task is migrated further when
+     * the scripts were only added to, and replaced otherwise.
+     *
+     * @param applied the scripts the database is migrated to, {@code null} if its state is unknown
+     * @return the scripts the database is migrated to now, {@code null} if the regeneration failed
+     */
+    private MigrationScripts regenerate(MigrationScripts applied, File directory) {
+        long start = System.nanoTime();
+        try {
+            MigrationScripts current = MigrationScripts.scan(directory);
+            if (applied != null && current.checksum().equals(applied.checksum())) {
+                return applied;
+            }
+
+            Configuration configuration = cloneObject(jooqConfiguration);
+            if (schemaSource.get() == SchemaSourceType.DDL) {
+                generate(configuration);
+            } else {
+                startMetrics(configuration);
+                metrics.put("schemaSource", schemaSource.get().name());
+                metrics.time("migrationValidation", this::validateMigrations);
+                boolean incremental = databaseLease != null && applied != null && applied.canMigrateTo(current);
+                metrics.put("incrementalMigration", incremental);
+                if (databaseLease != null && applied != null && !incremental) {
+                    // Flyway refuses scripts older than the ones the database was migrated with
+                    List<String> outOfOrder = current.outOfOrder(applied.versions());
+                    if (!outOfOrder.isEmpty()) {
+                        String separator = System.lineSeparator() + "  ";
+                        getLogger().lifecycle("Recreating the database for scripts added out of order:{}{}", separator, String.join(separator, outOfOrder));
+                    }
+                }
+                if (incremental) {
+                    useDatabase(configuration, databaseLease);
+                } else {
+                    startContainer(configuration);
+                }
+                migrateDatabase(configuration);
+                metrics.time("schemaStatistics", () -> recordDatabaseStatistics(configuration));
+                excludeFlywayTables(configuration);
+                generateSources(configuration);
+            }
+            getLogger().lifecycle("Regenerated the jOOQ sources in {} ms", (System.nanoTime() - start) / 1_000_000);
+            return current;
+        } catch (RuntimeException e) {
+            // a generation interrupted by the cancellation of the build ends the watch
+            if (Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            // keep watching, the next change may fix the scripts
+            getLogger().error("Failed to regenerate the jOOQ sources: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lets the generator skip the tables that didn't change since the last run, unless the state of the last run can't
+     * be built on.
+     *
+     * @return whether the generator runs incrementally
+     */
+    private boolean prepareIncrementalGeneration(Configuration configuration, File stateDir) {
+        if (!incremental.get()) {
+            return false;
+        }
+        if (!usesDefaultGenerator(configuration, "Incremental generation")) {
+            return false;
+        }
+
+        // the fingerprints only describe the output of the same configuration, generator and generator features, the
+        // retained classes of a table refer to the optional classes generated with them
+        String inputs = normalizedJooqConfigurationHash.get() + "|" + runtimeClasspathHash()
+                + "|recordMappers=" + recordMappers.get() + ",preRenderedSql=" + preRenderedSql.get()
+                + ",copyWriters=" + copyWriters.get() + ",indexedFinders=" + indexedFinders.get()
+                + ",asyncDaos=" + asyncDaos.get() + ",shards=" + shards.get();
+        File inputsFile = new File(stateDir, INCREMENTAL_INPUTS_FILE);
+        File[] outputFiles = outputDir.get().getAsFile().listFiles();
+        try {
+            if (!inputsFile.isFile() || !Files.readString(inputsFile.toPath(), StandardCharsets.UTF_8).equals(inputs)
+                    || outputFiles == null || outputFiles.length == 0) {
+                fileSystemOperations.delete(spec -> spec.delete(stateDir));
+            }
+            Files.createDirectories(stateDir.toPath());
+            Files.writeString(inputsFile.toPath(), inputs, StandardCharsets.UTF_8);
+            for (String fileName : List.of(CodegenJavaGenerator.PENDING_FINGERPRINTS_FILE, CodegenJavaGenerator.RETAINED_FILES_FILE, CodegenJavaGenerator.PLAN_FILE)) {
+                Files.deleteIfExists(new File(stateDir, fileName).toPath());
+            }
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+
+        configuration.getGenerator().setName(CodegenJavaGenerator.class.getName());
+        configuration.getGenerator().getDatabase().getProperties().add(new org.jooq.meta.jaxb.Property()
+                .withKey(CodegenJavaGenerator.STATE_DIR_PROPERTY)
+                .withValue(stateDir.getAbsolutePath()));
+        return true;
+    }
+
+    /**
+     * @return a hash of the contents of the generator classpath, which changes with every rebuilt generator extension
+     */
+    private String runtimeClasspathHash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            List<Path> roots = runtimeClasspath.getFiles().stream().map(File::toPath).sorted().toList();
+            for (Path root : roots) {
+                if (!Files.exists(root)) {
+                    continue;
+                }
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(root)) {
+                    files = walk.filter(Files::isRegularFile).sorted().toList();
+                }
+                for (Path file : files) {
+                    digest.update(root.getFileName().resolve(root.relativize(file)).toString().getBytes(StandardCharsets.UTF_8));
+                    try (InputStream in = Files.newInputStream(file)) {
+                        in.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
+
+    /**
+     * Lets the generator emit the optional classes of a feature enabled in the output block of the configuration.
+     *
+     * @return whether the feature is enabled
+     */
+    private boolean enableGeneratorFeature(Configuration configuration, Property<Boolean> enabled, String feature, String property) {
+        if (!enabled.get() || !usesDefaultGenerator(configuration, feature)) {
+            return false;
+        }
+        configuration.getGenerator().setName(CodegenJavaGenerator.class.getName());
+        configuration.getGenerator().getDatabase().getProperties().add(new org.jooq.meta.jaxb.Property()
+                .withKey(property)
+                .withValue(Boolean.TRUE.toString()));
+        return true;
+    }
+
+    /**
+     * Adds the columns whose single column DAO finders were left out for lack of an index to the report.
+     */
+    private void recordOmittedFinderColumns(File finderReport) {
+        List<String> columns;
+        try {
+            columns = finderReport.isFile()
+                    ? Files.readAllLines(finderReport.toPath(), StandardCharsets.UTF_8).stream().filter(line -> !line.isBlank()).sorted().toList()
+                    : List.of();
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+        metrics.put("omittedFinderColumns", columns);
+        if (!columns.isEmpty()) {
+            getLogger().lifecycle("Left out the DAO finders of {} columns without an index, they are listed in {}",
+                    columns.size(), reportFile.get().getAsFile());
+        }
+    }
+
+    private boolean usesDefaultGenerator(Configuration configuration, String feature) {
+        String name = configuration.getGenerator().getName();
+        if (name != null && !DEFAULT_GENERATORS.contains(name) && !name.equals(CodegenJavaGenerator.class.getName())) {
+            getLogger().warn("{} requires the default jOOQ Java generator, but {} is configured.", feature, name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Splits the generation of the tables across the configured number of generator runs. Every run introspects the
+     * whole catalog, so the classes spanning all tables come out the same in every run and are taken from the first.
+     *
+     * @return the configuration of every run, the first one generating into the staging directory
+     */
+    private List<Configuration> shardConfigurations(Configuration configuration, File stagingDir) {
+        int count = shards.get();
+        if (count <= 1 || !usesDefaultGenerator(configuration, "Sharded generation")) {
+            return List.of(configuration);
+        }
+        if (execution.get() == GeneratorExecution.WORKER_CLASSLOADER) {
+            // the shards would share the heap of the Gradle daemon, and each of them holds the whole catalog
+            getLogger().warn("Sharded generation requires a generator JVM per shard, but the generator runs in the Gradle daemon with {}. Generating without shards.",
+                    GeneratorExecution.WORKER_CLASSLOADER.name().toLowerCase(Locale.ROOT));
+            return List.of(configuration);
+        }
+        metrics.put("shards", count);
+        configuration.getGenerator().setName(CodegenJavaGenerator.class.getName());
+
+        List<Configuration> configurations = new ArrayList<>();
+        for (int shard = 0; shard < count; shard++) {
+            File shardDir = shard == 0 ? stagingDir : shardDir(shard);
+            fileSystemOperations.delete(spec -> spec.delete(shardDir));
+            Configuration shardConfiguration = cloneObject(configuration);
+            shardConfiguration.getGenerator().getTarget().setDirectory(shardDir.getAbsolutePath());
+            shardConfiguration.getGenerator().getDatabase().getProperties().add(new org.jooq.meta.jaxb.Property()
+                    .withKey(CodegenJavaGenerator.SHARD_INDEX_PROPERTY)
+                    .withValue(String.valueOf(shard)));
+            shardConfiguration.getGenerator().getDatabase().getProperties().add(new org.jooq.meta.jaxb.Property()
+                    .withKey(CodegenJavaGenerator.SHARD_COUNT_PROPERTY)
+                    .withValue(String.valueOf(count)));
+            configurations.add(shardConfiguration);
+        }
+        return configurations;
+    }
+
+    private File shardDir(int shard) {
+        return new File(getTemporaryDir(), "staging-" + shard);
+    }
+
+    private void mergeShards(File stagingDir, int count) {
+        try {
+            // the tables of the other shards join the classes generated by the first shard
+            for (int shard = 1; shard < count; shard++) {
+                DirectorySync.merge(shardDir(shard), stagingDir);
+            }
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        } finally {
+            for (int shard = 1; shard < count; shard++) {
+                File shardDir = shardDir(shard);
+                fileSystemOperations.delete(spec -> spec.delete(shardDir));
+            }
+        }
+    }
+
+    private Set<String> readRetainedFiles(File stateDir) {
+        File retainedFile = new File(stateDir, CodegenJavaGenerator.RETAINED_FILES_FILE);
+        try {
+            return retainedFile.isFile()
+                    ? Set.copyOf(Files.readAllLines(retainedFile.toPath(), StandardCharsets.UTF_8))
+                    : Set.of();
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
+
+    private void completeIncrementalGeneration(File stateDir) {
+        File pending = new File(stateDir, CodegenJavaGenerator.PENDING_FINGERPRINTS_FILE);
+        File plan = new File(stateDir, CodegenJavaGenerator.PLAN_FILE);
+        try {
+            // the output now matches the fingerprints of this run
+            if (pending.isFile()) {
+                Files.move(pending.toPath(), new File(stateDir, CodegenJavaGenerator.FINGERPRINTS_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (plan.isFile()) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(plan.toPath())) {
+                    properties.load(in);
+                }
+                Map<String, Object> incrementalMetrics = new LinkedHashMap<>();
+                properties.stringPropertyNames().stream().sorted().forEach(key -> incrementalMetrics.put(key, properties.getProperty(key)));
+                metrics.put("incremental", incrementalMetrics);
+            }
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
 
-        // set target directory to the defined default value if no explicit value has been configured
-        jooqConfiguration.getGenerator().getTarget().setDirectory(outputDir.get().getAsFile().getAbsolutePath());
+    private DirectorySync.Result syncOutput(File stagingDir, Set<String> retained) {
+        try {
+            DirectorySync.Result result = DirectorySync.sync(stagingDir, outputDir.get().getAsFile(), retained);
+            getLogger().info("Synchronized generated sources: {}", result);
+            return result;
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        } finally {
+            fileSystemOperations.delete(spec -> spec.delete(stagingDir));
+        }
+    }
 
-        // clean target directory to ensure no stale files are still around
-        fileSystemOperations.delete(spec -> spec.delete(outputDir.get()));
+    /**
+     * Checks the migration scripts before a database is started for them, so broken scripts fail the build within
+     * seconds instead of after the container started and the earlier scripts were applied.
+     */
+    private void validateMigrations() {
+        MigrationValidation validation = migrationValidation.get();
+        if (validation == MigrationValidation.OFF) {
+            return;
+        }
+        MigrationScripts scripts = MigrationScripts.scan(migrationsDir.get().getAsFile());
+        File historyFile = migrationHistoryFile.isPresent() ? migrationHistoryFile.get().getAsFile() : null;
+        List<String> errors = new ArrayList<>(scripts.duplicates());
+        List<String> warnings = new ArrayList<>(historyFile != null ? scripts.outOfOrder(readMigrationHistory(historyFile)) : List.of());
+        List<String> unsupported = new ArrayList<>();
+        // the DDL schema source parses the scripts anyway, and reports the same problems
+        if (schemaSource.get() != SchemaSourceType.DDL) {
+            MigrationParser.parse(MigrationParser.dslContext(), scripts, warnings, unsupported);
+        }
+        if (validation == MigrationValidation.STRICT) {
+            errors.addAll(warnings);
+            errors.addAll(unsupported);
+            warnings.clear();
+            unsupported.clear();
+        }
+        metrics.put("migrationProblems", errors.size() + warnings.size() + unsupported.size());
 
-        // define a config file to which the jOOQ code generation configuration is written to
-        File configFile = new File(getTemporaryDir(), "config.xml");
+        String separator = System.lineSeparator() + "  ";
+        if (!errors.isEmpty()) {
+            throw new GradleException("The migration scripts are invalid:" + separator + String.join(separator, errors));
+        }
+        if (!warnings.isEmpty()) {
+            getLogger().warn("The migration scripts may be invalid:{}{}", separator, String.join(separator, warnings));
+        }
+        if (!unsupported.isEmpty()) {
+            getLogger().info("The jOOQ parser doesn't support these statements, which are only checked by the database:{}{}",
+                    separator, String.join(separator, unsupported));
+        }
+        // a script added out of order is reported once, the next validation compares with the scripts seen now
+        if (historyFile != null) {
+            writeMigrationHistory(historyFile, scripts);
+        }
+    }
+
+    private Map<String, MigrationVersion> readMigrationHistory(File historyFile) {
+        Map<String, MigrationVersion> versions = new LinkedHashMap<>();
+        if (historyFile.isFile()) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(historyFile.toPath())) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new TaskExecutionException(CodeGenerate.this, e);
+            }
+            properties.stringPropertyNames().forEach(path -> versions.put(path, MigrationVersion.fromVersion(properties.getProperty(path))));
+        }
+        return versions;
+    }
+
+    private void writeMigrationHistory(File historyFile, MigrationScripts scripts) {
+        Properties properties = new Properties();
+        scripts.versions().forEach((path, version) -> properties.setProperty(path, version.getVersion()));
+        try {
+            Files.createDirectories(historyFile.getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(historyFile.toPath())) {
+                properties.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
 
-        // write jOOQ code generation configuration to config file
-        writeConfiguration(jooqConfiguration, configFile);
+    private boolean usesMigrationScripts() {
+        return useContainer.get() || schemaSource.get() == SchemaSourceType.DDL;
+    }
 
-        // generate the jOOQ Java sources files using the written config file
-        ExecResult execResult = executeJooq(configFile);
+    private void applySchemaSource(Configuration configuration) {
+        if (schemaSource.get() == SchemaSourceType.DDL) {
+            try {
+                DdlSchemaSource ddlSchemaSource = new DdlSchemaSource(migrationsDir.get().getAsFile());
+                metrics.time("ddlInterpretation", () -> ddlSchemaSource.apply(configuration));
+                metrics.schema(ddlSchemaSource.getTableCount(), ddlSchemaSource.getColumnCount());
+                return;
+            } catch (UnsupportedSchemaException e) {
+                if (!useContainer.get() || !fallbackToContainer.get()) {
+                    throw e;
+                }
+                getLogger().warn("{}{}Falling back to the database container.", e.getMessage(), System.lineSeparator());
+            }
+        }
+        new ContainerSchemaSource().apply(configuration);
+    }
 
-        // invoke custom result handler
-        if (execResultHandler != null) {
-            execResultHandler.execute(execResult);
+    /**
+     * Applies the migration scripts to a Postgres container, optionally starting from a checkpoint or reading the
+     * catalog from a schema snapshot.
+     */
+    private final class ContainerSchemaSource implements SchemaSource {
+        @Override
+        public void apply(Configuration configuration) {
+            if (schemaSnapshotEnabled.get()) {
+                // reuse the catalog introspected by an earlier run with the same migrations, or create it
+                File snapshotFile = schemaSnapshotFile(configuration);
+                if (snapshotFile.isFile()) {
+                    getLogger().info("Using schema snapshot: {}", snapshotFile);
+                    metrics.put("schemaSnapshot", "hit");
+                    recordSchemaStatistics(metrics.time("schemaSnapshotRead", () -> readSchemaSnapshot(snapshotFile)));
+                } else {
+                    metrics.put("schemaSnapshot", "miss");
+                    startContainer(configuration);
+                    migrateDatabase(configuration);
+                    recordSchemaStatistics(metrics.time("schemaSnapshotExport", () -> exportSchemaSnapshot(configuration, snapshotFile)));
+                }
+                useSchemaSnapshot(configuration, snapshotFile);
+            } else {
+                // start database container
+                startContainer(configuration);
+                // migrate data to database
+                migrateDatabase(configuration);
+                metrics.time("schemaStatistics", () -> recordDatabaseStatistics(configuration));
+            }
         }
     }
 
@@ -236,6 +1121,14 @@ public abstract class CodeGenerate extends DefaultTask {
 
     private void writeConfiguration(Configuration config, File file) {
         try (OutputStream fs = new FileOutputStream(file)) {
+            writeConfiguration(config, fs);
+        } catch (IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
+
+    private void writeConfiguration(Configuration config, OutputStream fs) {
+        try {
             SchemaFactory sf = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
             String resourceFileName = xsdResourcePath();
             URL schemaResourceURL = GenerationTool.class.getResource(resourceFileName);
@@ -249,7 +1142,7 @@ public abstract class CodeGenerate extends DefaultTask {
             marshaller.setSchema(schema);
 
             marshaller.marshal(config, fs);
-        } catch (IOException | JAXBException | SAXException e) {
+        } catch (JAXBException | SAXException e) {
             throw new TaskExecutionException(CodeGenerate.this, e);
         }
     }
@@ -264,16 +1157,206 @@ public abstract class CodeGenerate extends DefaultTask {
         }
     }
 
-    private ExecResult executeJooq(final File configFile) {
-        return execOperations.javaexec(spec -> {
-            setMainClass("org.jooq.codegen.GenerationTool", spec);
+    /**
+     * @return the heap of the generator JVM, {@code null} to leave it to the JVM defaults
+     */
+    private Long generatorHeapMegabytes(int shards) {
+        Integer tables = metrics.getSchemaTables();
+        Integer columns = metrics.getSchemaColumns();
+        // the schema is only known up front when the plugin built it
+        if (!adaptiveJvm.get() || tables == null || columns == null) {
+            generatorHeapEstimate = null;
+            return null;
+        }
+        long limitMegabytes = GeneratorJvmOptions.parseMegabytes(generatorMaxHeapSize.get());
+        generatorHeapEstimate = GeneratorJvmOptions.estimateMegabytes(tables, columns, shards, limitMegabytes);
+        long heapMegabytes = GeneratorJvmOptions.heapMegabytes(tables, columns, shards, limitMegabytes, GeneratorJvmOptions.defaultHeapMegabytes());
+        metrics.generator("estimatedHeapSize", generatorHeapEstimate + "m");
+        metrics.generator("maxHeapSize", heapMegabytes + "m");
+        return heapMegabytes;
+    }
+
+    private ExecResult executeJooq(final File configFile, final File statisticsFile, int shard) {
+        File gcLogFile = new File(reportFile.get().getAsFile().getParentFile(), getName() + (shard == 0 ? "" : "-" + shard) + "-gc.log");
+        if (shard == 0 && gcLog.get()) {
+            metrics.generator("gcLog", gcLogFile.getAbsolutePath());
+        }
+        // the archive depends on the java executable, which is only known once the exec spec is configured
+        AtomicReference<File> archive = new AtomicReference<>();
+        AtomicReference<File> dump = new AtomicReference<>();
+
+        ExecResult execResult = execOperations.javaexec(spec -> {
+            setMainClass(GenerationToolLauncher.class.getName(), spec);
             spec.setClasspath(runtimeClasspath);
+            spec.classpath(pluginClasspath());
             spec.setWorkingDir(projectLayout.getProjectDirectory());
+            spec.systemProperty(GenerationToolLauncher.STATISTICS_FILE_PROPERTY, statisticsFile.getAbsolutePath());
             spec.args(configFile);
+            if (generatorHeapMegabytes != null) {
+                spec.setMaxHeapSize(generatorHeapMegabytes + "m");
+            }
             if (javaExecSpec != null) {
                 javaExecSpec.execute(spec);
             }
+            // the collector and compiler chosen by the user take precedence
+            if (generatorHeapMegabytes != null) {
+                spec.jvmArgs(GeneratorJvmOptions.tuningArgs(spec.getJvmArgs(), generatorHeapEstimate));
+            }
+            if (gcLog.get()) {
+                gcLogFile.getParentFile().mkdirs();
+                // quoted, since a drive letter would end the file option early
+                spec.jvmArgs("-Xlog:gc*:file=\"" + gcLogFile.getAbsolutePath() + "\":uptime,level,tags");
+            }
+            if (classDataSharing.get()) {
+                archive.set(classDataSharingArchive(spec.getExecutable()));
+                boolean shareClasses = archive.get() != null && archive.get().isFile();
+                if (shard == 0) {
+                    metrics.generator("classDataSharing", archive.get() == null ? "unsupported" : shareClasses ? "shared" : "dumped");
+                    if (archive.get() == null) {
+                        getLogger().warn("The generator classes are not shared, since its classpath contains directories");
+                    }
+                }
+                if (shareClasses) {
+                    spec.jvmArgs("-XX:SharedArchiveFile=" + archive.get().getAbsolutePath());
+                } else if (archive.get() != null && shard == 0) {
+                    // the first run dumps the classes it loaded, concurrent runs must not write the same archive
+                    dump.set(new File(getTemporaryDir(), archive.get().getName()));
+                    spec.jvmArgs("-XX:ArchiveClassesAtExit=" + dump.get().getAbsolutePath());
+                }
+            }
         });
+
+        if (dump.get() != null && dump.get().isFile()) {
+            try {
+                Files.createDirectories(archive.get().getParentFile().toPath());
+                Files.move(dump.get().toPath(), archive.get().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new TaskExecutionException(CodeGenerate.this, e);
+            }
+        }
+        return execResult;
+    }
+
+    /**
+     * @param executable the java executable of the generator JVM, the one running Gradle if none is configured
+     * @return the class data sharing archive of the JVM and generator classpath, which may not exist yet, or
+     * {@code null} if the classpath contains directories, which the JVM doesn't archive
+     */
+    private File classDataSharingArchive(String executable) {
+        File java = executable != null ? new File(executable) : new File(System.getProperty("java.home"), "bin/java");
+        // an archive only fits the JVM build and the exact classpath it was dumped with, and every JDK build has its own
+        // module image
+        File modules = new File(java.getAbsoluteFile().getParentFile().getParentFile(), "lib/modules");
+        StringBuilder key = new StringBuilder(java.getAbsolutePath())
+                .append('|').append(modules.length()).append(':').append(modules.lastModified());
+        List<File> classpath = new ArrayList<>(runtimeClasspath.getFiles());
+        classpath.addAll(pluginClasspath());
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                return null;
+            }
+            key.append('|').append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        }
+        String hash = UUID.nameUUIDFromBytes(key.toString().getBytes(StandardCharsets.UTF_8)).toString();
+        return classDataSharingDir.file("jooq-codegen-" + hash + ".jsa").get().getAsFile();
+    }
+
+    private List<ExecResult> executeJooq(List<File> configFiles, List<File> statisticsFiles) {
+        if (configFiles.size() == 1) {
+            return List.of(executeJooq(configFiles.get(0), statisticsFiles.get(0), 0));
+        }
+        // javaexec blocks until the generator exits, so every running shard forks its JVM from a thread of its own
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(configFiles.size(), maxParallelShards.get())));
+        try {
+            List<Future<ExecResult>> futures = new ArrayList<>();
+            for (int shard = 0; shard < configFiles.size(); shard++) {
+                File configFile = configFiles.get(shard);
+                File statisticsFile = statisticsFiles.get(shard);
+                int index = shard;
+                futures.add(executor.submit(() -> executeJooq(configFile, statisticsFile, index)));
+            }
+            List<ExecResult> execResults = new ArrayList<>();
+            for (Future<ExecResult> future : futures) {
+                execResults.add(future.get());
+            }
+            return execResults;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new TaskExecutionException(CodeGenerate.this, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private WorkQueue submitJooq(List<String> configurationXmls, List<File> statisticsFiles) {
+        WorkQueue workQueue;
+        if (execution.get() == GeneratorExecution.WORKER_PROCESS) {
+            workQueue = workerExecutor.processIsolation(spec -> {
+                spec.getClasspath().from(runtimeClasspath, pluginClasspath());
+                spec.forkOptions(forkOptions -> {
+                    forkOptions.setWorkingDir(projectLayout.getProjectDirectory());
+                    // worker daemons are only reused by tasks with the same options, which the rounded heap keeps stable
+                    if (generatorHeapMegabytes != null) {
+                        forkOptions.setMaxHeapSize(generatorHeapMegabytes + "m");
+                    }
+                    if (workerForkOptions != null) {
+                        workerForkOptions.execute(forkOptions);
+                    }
+                    if (generatorHeapMegabytes != null) {
+                        forkOptions.jvmArgs(GeneratorJvmOptions.tuningArgs(forkOptions.getJvmArgs(), generatorHeapEstimate));
+                    }
+                });
+            });
+        } else {
+            workQueue = workerExecutor.classLoaderIsolation(spec -> spec.getClasspath().from(runtimeClasspath, pluginClasspath()));
+        }
+        // the work items of a queue run in parallel, as far as the maximum number of workers and shards allows
+        int maxParallel = Math.max(1, maxParallelShards.get());
+        for (int shard = 0; shard < configurationXmls.size(); shard++) {
+            if (shard > 0 && shard % maxParallel == 0) {
+                workQueue.await();
+            }
+            String xml = configurationXmls.get(shard);
+            File statisticsFile = statisticsFiles.get(shard);
+            workQueue.submit(GenerateJooqAction.class, parameters -> {
+                parameters.getConfiguration().set(xml);
+                // the heap of the Gradle daemon says nothing about the generator
+                if (execution.get() == GeneratorExecution.WORKER_PROCESS) {
+                    parameters.getStatisticsFile().set(statisticsFile);
+                }
+            });
+        }
+        return workQueue;
+    }
+
+    private List<File> pluginClasspath() {
+        // the worker action is loaded next to the generator, from the jar of this plugin, or from its classes and
+        // resources directories when the plugin isn't packaged, like in its own tests
+        Set<File> classpath = new LinkedHashSet<>();
+        try {
+            classpath.add(new File(GenerateJooqAction.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+            String packagePath = CodegenJavaGenerator.class.getPackageName().replace('.', '/');
+            Enumeration<URL> directories = CodegenJavaGenerator.class.getClassLoader().getResources(packagePath);
+            while (directories.hasMoreElements()) {
+                URL directory = directories.nextElement();
+                if ("file".equals(directory.getProtocol())) {
+                    // the root the package directory is resolved against
+                    Path root = Path.of(directory.toURI());
+                    for (int i = 0; i < packagePath.split("/").length; i++) {
+                        root = root.getParent();
+                    }
+                    classpath.add(root.toFile());
+                }
+            }
+        } catch (URISyntaxException | IOException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+        return new ArrayList<>(classpath);
     }
 
     private void setMainClass(String mainClass, JavaExecSpec spec) {
@@ -289,24 +1372,174 @@ public abstract class CodeGenerate extends DefaultTask {
         spec.setMain(mainClass);
     }
 
-    private void startContainer() {
-        var container = getServer().get().getContainer();
-        jooqConfiguration.getJdbc()
-                .withDriver(container.getDriverClassName())
-                .withUrl(container.getJdbcUrl())
-                .withUser(container.getUsername())
-                .withPassword(container.getPassword());
+    private void startContainer(Configuration configuration) {
+        metrics.time("containerAcquisition", () -> acquireContainer(configuration));
+    }
+
+    private void acquireContainer(Configuration configuration) {
+        if (migrationCheckpoints.get()) {
+            PostgreSQLContainer<?> container = startCheckpointContainer(configuration);
+            configuration.getJdbc()
+                    .withDriver(container.getDriverClassName())
+                    .withUrl(container.getJdbcUrl())
+                    .withUser(container.getUsername())
+                    .withPassword(container.getPassword());
+        } else {
+            // a watching task replaces its database when the migration history was rewritten
+            if (databaseLease != null) {
+                databaseLease.close();
+            }
+            // every task migrates into a database of its own, so tasks can share the pooled containers concurrently
+            databaseLease = getServer().get().lease(getPath());
+            useDatabase(configuration, databaseLease);
+        }
+    }
+
+    private static void useDatabase(Configuration configuration, DatabaseLease lease) {
+        configuration.getJdbc()
+                .withDriver(lease.getDriverClassName())
+                .withUrl(lease.getJdbcUrl())
+                .withUser(lease.getUsername())
+                .withPassword(lease.getPassword());
     }
 
-    private void migrateDatabase() {
-        String migrationScriptsLocation = new File(projectLayout.getProjectDirectory().getAsFile(), "src/main/resources/db/migration").getAbsolutePath();
+    private void migrateDatabase(Configuration configuration) {
+        metrics.time("migrations", () -> applyMigrations(configuration));
+    }
+
+    private void applyMigrations(Configuration configuration) {
+        String migrationScriptsLocation = migrationsDir.get().getAsFile().getAbsolutePath();
         var result = Flyway.configure()
-                .dataSource(jooqConfiguration.getJdbc().getUrl(), jooqConfiguration.getJdbc().getUser(), jooqConfiguration.getJdbc().getPassword())
-                .schemas(jooqConfiguration.getGenerator().getDatabase().getInputSchema())
+                .dataSource(configuration.getJdbc().getUrl(), configuration.getJdbc().getUser(), configuration.getJdbc().getPassword())
+                // the first schema holds the schema history, all of them are migrated in one pass
+                .schemas(inputSchemas(configuration).toArray(new String[0]))
                 .locations("filesystem:" + migrationScriptsLocation)
                 .load()
                 .migrate();
-        result.migrations.forEach(migration -> getLogger().info("Executed migration: {}", migration.filepath));
+        result.migrations.forEach(migration -> {
+            getLogger().info("Executed migration: {}", migration.filepath);
+            metrics.migration(migration.version, migration.filepath, migration.executionTime);
+        });
+
+        // checkpoint the migrated database, so the next build only applies the migrations added after this one
+        if (checkpointContainer != null && latestCheckpoint != null && !latestCheckpoint.equals(startedCheckpoint)) {
+            getServer().get().checkpoint(checkpointContainer, schemaKey(configuration), latestCheckpoint);
+        }
+    }
+
+    /**
+     * @return the schemas to migrate and generate, empty if none is configured
+     */
+    private static List<String> inputSchemas(Configuration configuration) {
+        org.jooq.meta.jaxb.Database database = configuration.getGenerator().getDatabase();
+        if (!database.getSchemata().isEmpty()) {
+            return database.getSchemata().stream().map(SchemaMappingType::getInputSchema).collect(Collectors.toList());
+        }
+        return database.getInputSchema() == null ? List.of() : List.of(database.getInputSchema());
+    }
+
+    /**
+     * @return the schemas to migrate and generate, as part of checkpoint tags and snapshot file names
+     */
+    private static String schemaKey(Configuration configuration) {
+        List<String> schemas = inputSchemas(configuration);
+        return schemas.isEmpty() ? "default" : String.join("+", schemas);
+    }
+
+    private PostgreSQLContainer<?> startCheckpointContainer(Configuration configuration) {
+        String schema = schemaKey(configuration);
+        // one checkpoint per prefix of the migration history, newest first
+        List<String> checkpointTags = MigrationScripts.scan(migrationsDir.get().getAsFile()).prefixChecksums(schema, containerImage.get());
+
+        PostgresServer server = getServer().get();
+        startedCheckpoint = server.findCheckpoint(checkpointTags);
+        latestCheckpoint = checkpointTags.isEmpty() ? null : checkpointTags.get(0);
+        if (startedCheckpoint != null) {
+            getLogger().info("Starting from migration checkpoint: {}", startedCheckpoint);
+        }
+        checkpointContainer = server.startCheckpointContainer(startedCheckpoint);
+        return checkpointContainer;
+    }
+
+    private File schemaSnapshotFile(Configuration configuration) {
+        String schema = schemaKey(configuration);
+        String key = MigrationScripts.scan(migrationsDir.get().getAsFile()).checksum(schema, containerImage.getOrElse(""));
+        return schemaSnapshotDir.get().file(schema + "-" + key + SCHEMA_SNAPSHOT_SUFFIX).getAsFile();
+    }
+
+    private InformationSchema exportSchemaSnapshot(Configuration configuration, File snapshotFile) {
+        Jdbc jdbc = configuration.getJdbc();
+        String schema = schemaKey(configuration);
+        File directory = snapshotFile.getParentFile();
+        InformationSchema informationSchema;
+        try (Connection connection = DriverManager.getConnection(jdbc.getUrl(), jdbc.getUser(), jdbc.getPassword())) {
+            DSLContext ctx = DSL.using(connection, SQLDialect.POSTGRES);
+            List<org.jooq.Schema> schemas = new ArrayList<>();
+            for (String inputSchema : inputSchemas(configuration)) {
+                schemas.addAll(ctx.meta().getSchemas(inputSchema));
+            }
+            informationSchema = ctx.informationSchema(schemas.toArray(new org.jooq.Schema[0]));
+
+            Files.createDirectories(directory.toPath());
+            File tempFile = File.createTempFile("snapshot-", ".tmp", directory);
+            try (OutputStream fs = new FileOutputStream(tempFile)) {
+                JAXBContext.newInstance(InformationSchema.class).createMarshaller().marshal(informationSchema, fs);
+            }
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException | JAXBException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+
+        // snapshots of outdated migrations are never read again
+        File[] outdated = directory.listFiles((dir, name) -> name.startsWith(schema + "-") && name.endsWith(SCHEMA_SNAPSHOT_SUFFIX) && !name.equals(snapshotFile.getName()));
+        if (outdated != null) {
+            fileSystemOperations.delete(spec -> spec.delete((Object[]) outdated));
+        }
+        getLogger().info("Exported schema snapshot: {}", snapshotFile);
+        return informationSchema;
+    }
+
+    private InformationSchema readSchemaSnapshot(File snapshotFile) {
+        try {
+            return (InformationSchema) JAXBContext.newInstance(InformationSchema.class).createUnmarshaller().unmarshal(snapshotFile);
+        } catch (JAXBException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
+
+    private void recordSchemaStatistics(InformationSchema informationSchema) {
+        int tables = (int) informationSchema.getTables().stream().filter(table -> !isFlywayTable(table.getTableName())).count();
+        int columns = (int) informationSchema.getColumns().stream().filter(column -> !isFlywayTable(column.getTableName())).count();
+        metrics.schema(tables, columns);
+    }
+
+    private void recordDatabaseStatistics(Configuration configuration) {
+        Jdbc jdbc = configuration.getJdbc();
+        Object[] schemas = inputSchemas(configuration).toArray();
+        String schemaCondition = schemas.length == 0 ? "table_schema = current_schema()"
+                : "table_schema in (" + Stream.generate(() -> "?").limit(schemas.length).collect(Collectors.joining(", ")) + ")";
+        try (Connection connection = DriverManager.getConnection(jdbc.getUrl(), jdbc.getUser(), jdbc.getPassword())) {
+            DSLContext ctx = DSL.using(connection, SQLDialect.POSTGRES);
+            int tables = ctx.fetchOne("select count(*) from information_schema.tables where " + schemaCondition + " and table_name not like 'flyway\\_%'", schemas).get(0, Integer.class);
+            int columns = ctx.fetchOne("select count(*) from information_schema.columns where " + schemaCondition + " and table_name not like 'flyway\\_%'", schemas).get(0, Integer.class);
+            metrics.schema(tables, columns);
+        } catch (SQLException e) {
+            throw new TaskExecutionException(CodeGenerate.this, e);
+        }
+    }
+
+    private static boolean isFlywayTable(String tableName) {
+        return tableName.startsWith("flyway_");
+    }
+
+    private void useSchemaSnapshot(Configuration configuration, File snapshotFile) {
+        // jOOQ reads the catalog from the snapshot instead of connecting to a database
+        configuration.setJdbc(new Jdbc());
+        configuration.getGenerator().getDatabase()
+                .withName("org.jooq.meta.xml.XMLDatabase")
+                .withProperties(
+                        new org.jooq.meta.jaxb.Property().withKey("dialect").withValue(SQLDialect.POSTGRES.name()),
+                        new org.jooq.meta.jaxb.Property().withKey("xmlFile").withValue(snapshotFile.getAbsolutePath()));
     }
 
 }
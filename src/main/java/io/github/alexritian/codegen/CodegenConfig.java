@@ -1,18 +1,25 @@
 package io.github.alexritian.codegen;
 
+import io.github.alexritian.codegen.migration.MigrationValidation;
+import io.github.alexritian.codegen.schema.SchemaSourceType;
 import nu.studer.gradle.jooq.JooqConfig;
 import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
-import org.gradle.api.Project;
 import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.ProviderFactory;
 import org.jooq.meta.jaxb.Configuration;
 import org.jooq.meta.jaxb.ForcedType;
+import org.jooq.meta.jaxb.SchemaMappingType;
 import org.jooq.meta.jaxb.Strategy;
 
 import javax.inject.Inject;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author Too_young
@@ -23,17 +30,19 @@ public class CodegenConfig extends JooqConfig {
 
     private final Database database;
     private final Output output;
+    private final SchemaSnapshot schemaSnapshot;
     private final Configuration configuration;
     private final ForcedTypeContainer forcedTypes;
 
     @Inject
-    public CodegenConfig(String name, Project project, ObjectFactory objects, ProviderFactory providers, ProjectLayout layout) {
+    public CodegenConfig(String name, ObjectFactory objects, ProviderFactory providers, ProjectLayout layout) {
         super(name, objects, providers, layout);
         this.name = name;
         this.database = new Database();
         this.output = new Output();
+        this.schemaSnapshot = new SchemaSnapshot();
         this.configuration = super.getJooqConfiguration();
-        this.forcedTypes = new ForcedTypeContainer(project);
+        this.forcedTypes = new ForcedTypeContainer(objects);
     }
 
     @Override
@@ -68,10 +77,15 @@ public class CodegenConfig extends JooqConfig {
                                 .withDaos(true)
                                 .withFluentSetters(true))
                         .withDatabase(configuration.getGenerator().getDatabase()
-                                .withInputSchema(database.getSchema())
+                                .withInputSchema(database.getSchemas().isEmpty() ? database.getSchema() : null)
+                                .withOutputSchema(database.getSchemas().isEmpty() ? database.getOutputSchemas().get(database.getSchema()) : null)
                                 .withIncludes(database.getIncludes())
                                 .withExcludes(database.getExcludes())
                                 .withRecordVersionFields(database.getRecordVersionFields())));
+        // several schemas are generated in one pass, each into the package of its output schema
+        configuration.getGenerator().getDatabase().setSchemata(database.getSchemas().stream()
+                .map(schema -> new SchemaMappingType().withInputSchema(schema).withOutputSchema(database.getOutputSchemas().get(schema)))
+                .collect(Collectors.toList()));
     }
 
     public void output(Action<? super Output> action) {
@@ -81,6 +95,22 @@ public class CodegenConfig extends JooqConfig {
                 .withDirectory(output.getDirectory());
     }
 
+    public Output getOutput() {
+        return this.output;
+    }
+
+    public Database getDatabase() {
+        return this.database;
+    }
+
+    public SchemaSnapshot getSchemaSnapshot() {
+        return this.schemaSnapshot;
+    }
+
+    public void schemaSnapshot(Action<? super SchemaSnapshot> action) {
+        action.execute(schemaSnapshot);
+    }
+
     public void forcedTypes(Action<? super ForcedTypeContainer> action) {
         action.execute(forcedTypes);
         configuration.getGenerator().getDatabase().getForcedTypes().addAll(forcedTypes.forcedTypes);
@@ -92,9 +122,14 @@ public class CodegenConfig extends JooqConfig {
         private String user;
         private String password;
         private String schema;
+        private List<String> schemas = new ArrayList<>();
+        private Map<String, String> outputSchemas = new LinkedHashMap<>();
         private String includes;
         private String excludes;
         private String recordVersionFields;
+        private SchemaSourceType source = SchemaSourceType.CONTAINER;
+        private boolean fallbackToContainer;
+        private MigrationValidation migrationValidation = MigrationValidation.LENIENT;
 
         public String getDriver() {
             return driver;
@@ -116,6 +151,20 @@ public class CodegenConfig extends JooqConfig {
             return schema;
         }
 
+        /**
+         * @return the schemas migrated and generated together, replacing {@link #getSchema() schema} when not empty
+         */
+        public List<String> getSchemas() {
+            return schemas;
+        }
+
+        /**
+         * @return the names the schemas are generated under, by the name of the migrated schema
+         */
+        public Map<String, String> getOutputSchemas() {
+            return outputSchemas;
+        }
+
         public String getIncludes() {
             return includes;
         }
@@ -126,6 +175,14 @@ public class CodegenConfig extends JooqConfig {
 
         public String getRecordVersionFields() { return recordVersionFields; }
 
+        public SchemaSourceType getSource() {
+            return source;
+        }
+
+        public boolean isFallbackToContainer() {
+            return fallbackToContainer;
+        }
+
         public void setDriver(String driver) {
             this.driver = driver;
         }
@@ -146,6 +203,14 @@ public class CodegenConfig extends JooqConfig {
             this.schema = schema;
         }
 
+        public void setSchemas(List<String> schemas) {
+            this.schemas = new ArrayList<>(schemas);
+        }
+
+        public void setOutputSchemas(Map<String, String> outputSchemas) {
+            this.outputSchemas = new LinkedHashMap<>(outputSchemas);
+        }
+
         public void setIncludes(String includes) {
             this.includes = includes;
         }
@@ -155,11 +220,38 @@ public class CodegenConfig extends JooqConfig {
         }
 
         public void setRecordVersionFields(String recordVersionFields) { this.recordVersionFields = recordVersionFields; }
+
+        public void setSource(SchemaSourceType source) {
+            this.source = source;
+        }
+
+        public void setFallbackToContainer(boolean fallbackToContainer) {
+            this.fallbackToContainer = fallbackToContainer;
+        }
+
+        /**
+         * @return how strictly the migration scripts are checked before a database is started for them
+         */
+        public MigrationValidation getMigrationValidation() {
+            return migrationValidation;
+        }
+
+        public void setMigrationValidation(MigrationValidation migrationValidation) {
+            this.migrationValidation = migrationValidation;
+        }
     }
 
     public static class Output {
         private String packageName;
         private String directory = "build/generated/source/jooq";
+        private boolean compileSeparately;
+        private boolean incremental;
+        private int shards = 1;
+        private boolean recordMappers;
+        private boolean preRenderedSql;
+        private boolean copyWriters;
+        private boolean indexedFinders;
+        private boolean asyncDaos;
 
         public String getPackageName() {
             return packageName;
@@ -169,6 +261,13 @@ public class CodegenConfig extends JooqConfig {
             return directory;
         }
 
+        /**
+         * @return whether the generated sources are compiled into a jar of their own instead of with the source set
+         */
+        public boolean isCompileSeparately() {
+            return compileSeparately;
+        }
+
         public void setPackageName(String packageName) {
             this.packageName = packageName;
         }
@@ -176,6 +275,112 @@ public class CodegenConfig extends JooqConfig {
         public void setDirectory(String directory) {
             this.directory = directory;
         }
+
+        public void setCompileSeparately(boolean compileSeparately) {
+            this.compileSeparately = compileSeparately;
+        }
+
+        /**
+         * @return whether only the classes of the tables that changed since the last run are generated
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        /**
+         * @return the number of generator runs the tables are split across, which run in parallel
+         */
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        /**
+         * @return whether a mapper between the record and the POJO of every table is generated, which the DAOs use
+         * instead of reflection
+         */
+        public boolean isRecordMappers() {
+            return recordMappers;
+        }
+
+        public void setRecordMappers(boolean recordMappers) {
+            this.recordMappers = recordMappers;
+        }
+
+        /**
+         * @return whether the DAOs run {@code findById}, {@code fetchByX}, {@code insert} and {@code update} as
+         * Postgres SQL rendered at generation time
+         */
+        public boolean isPreRenderedSql() {
+            return preRenderedSql;
+        }
+
+        public void setPreRenderedSql(boolean preRenderedSql) {
+            this.preRenderedSql = preRenderedSql;
+        }
+
+        /**
+         * @return whether a writer streaming the records of every table through a binary {@code COPY} is generated
+         */
+        public boolean isCopyWriters() {
+            return copyWriters;
+        }
+
+        public void setCopyWriters(boolean copyWriters) {
+            this.copyWriters = copyWriters;
+        }
+
+        /**
+         * @return whether the DAOs only get the finders of the columns leading an index, plus finders for composite index
+         * prefixes and keyset pagination
+         */
+        public boolean isIndexedFinders() {
+            return indexedFinders;
+        }
+
+        public void setIndexedFinders(boolean indexedFinders) {
+            this.indexedFinders = indexedFinders;
+        }
+
+        /**
+         * @return whether every DAO gets a variant that runs its operations on virtual threads and returns
+         * {@code CompletionStage}s
+         */
+        public boolean isAsyncDaos() {
+            return asyncDaos;
+        }
+
+        public void setAsyncDaos(boolean asyncDaos) {
+            this.asyncDaos = asyncDaos;
+        }
+    }
+
+    public static class SchemaSnapshot {
+        private boolean enabled;
+        private String directory = "src/main/jooq";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
     }
 
    public static class ForcedTypeContainer {
@@ -188,8 +393,8 @@ public class CodegenConfig extends JooqConfig {
         private final static String JSONB_TYPE = "(?i)(jsonb)";
         private final NamedDomainObjectContainer<ForcedType> forcedTypes;
 
-        public ForcedTypeContainer(Project project) {
-            this.forcedTypes = project.container(ForcedType.class);
+        public ForcedTypeContainer(ObjectFactory objects) {
+            this.forcedTypes = objects.domainObjectContainer(ForcedType.class, name -> new ForcedType().withName(name));
         }
 
         public NamedDomainObjectContainer<ForcedType> getForcedTypes() {
@@ -1,8 +1,8 @@
 package io.github.alexritian.codegen;
 
 import nu.studer.gradle.jooq.JooqEdition;
+import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
-import org.gradle.api.Project;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 
@@ -17,19 +17,32 @@ public class CodegenExtension {
     private static final JooqEdition DEFAULT_EDITION = JooqEdition.OSS;
 
     private final Property<Boolean> useContainer;
+    private final ContainerProfile container;
+    private final GeneratorJvmProfile generatorJvm;
+    private final Property<Boolean> migrationCheckpoints;
+    private final Property<GeneratorExecution> execution;
+    private final Property<Integer> maxParallelGenerations;
+    private final Property<Boolean> prewarmContainer;
     private final Property<String> version;
     private final Property<JooqEdition> edition;
     private final NamedDomainObjectContainer<CodegenConfig> configurations;
 
     @Inject
-    public CodegenExtension(ObjectFactory objects, Project project) {
+    public CodegenExtension(ObjectFactory objects) {
         this.useContainer = objects.property(Boolean.class).convention(true);
+        this.container = objects.newInstance(ContainerProfile.class);
+        this.generatorJvm = objects.newInstance(GeneratorJvmProfile.class);
+        this.migrationCheckpoints = objects.property(Boolean.class).convention(false);
+        this.execution = objects.property(GeneratorExecution.class).convention(GeneratorExecution.JAVA_EXEC);
+        this.maxParallelGenerations = objects.property(Integer.class).convention(Runtime.getRuntime().availableProcessors());
+        this.prewarmContainer = objects.property(Boolean.class).convention(false);
         this.version = objects.property(String.class).convention(DEFAULT_VERSION);
         this.edition = objects.property(JooqEdition.class).convention(DEFAULT_EDITION);
         this.configurations = objects.domainObjectContainer(CodegenConfig.class, name -> objects.newInstance(CodegenConfig.class, name));
 
         version.finalizeValueOnRead();
         edition.finalizeValueOnRead();
+        maxParallelGenerations.finalizeValueOnRead();
     }
 
     @SuppressWarnings("unused")
@@ -37,6 +50,56 @@ public class CodegenExtension {
         return useContainer;
     }
 
+    @SuppressWarnings("unused")
+    public ContainerProfile getContainer() {
+        return container;
+    }
+
+    @SuppressWarnings("unused")
+    public void container(Action<? super ContainerProfile> action) {
+        action.execute(container);
+    }
+
+    /**
+     * @return the image of the container
+     * @deprecated use {@code container.image} instead
+     */
+    @Deprecated
+    @SuppressWarnings("unused")
+    public Property<String> getContainerImage() {
+        return container.getImage();
+    }
+
+    @SuppressWarnings("unused")
+    public GeneratorJvmProfile getGeneratorJvm() {
+        return generatorJvm;
+    }
+
+    @SuppressWarnings("unused")
+    public void generatorJvm(Action<? super GeneratorJvmProfile> action) {
+        action.execute(generatorJvm);
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Boolean> getMigrationCheckpoints() {
+        return migrationCheckpoints;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<GeneratorExecution> getExecution() {
+        return execution;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Integer> getMaxParallelGenerations() {
+        return maxParallelGenerations;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Boolean> getPrewarmContainer() {
+        return prewarmContainer;
+    }
+
     @SuppressWarnings("unused")
     public Property<String> getVersion() {
         return version;
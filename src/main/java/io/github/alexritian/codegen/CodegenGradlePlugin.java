@@ -6,11 +6,23 @@ package io.github.alexritian.codegen;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.FileCollectionDependency;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.Directory;
 import org.gradle.api.plugins.JavaBasePlugin;
 import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.jvm.tasks.Jar;
 import io.github.alexritian.codegen.containers.PostgresServer;
+import io.github.alexritian.codegen.schema.SchemaSourceType;
+
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import static nu.studer.gradle.jooq.util.Gradles.isAtLeastGradleVersion;
 import static nu.studer.gradle.jooq.util.Strings.capitalize;
@@ -24,32 +36,43 @@ public class CodegenGradlePlugin implements Plugin<Project> {
         // apply Java base plugin, making it possible to also use the jOOQ plugin for Android builds
         project.getPlugins().apply(JavaBasePlugin.class);
 
-        // register build server
-        var serverProvider = PostgresServer.getProvider(project);
         // add extension
         var codegenExtension = project.getExtensions().create("jooq", CodegenExtension.class);
+        // register build server
+        var serverProvider = PostgresServer.getProvider(project, codegenExtension.getContainer(), codegenExtension.getMaxParallelGenerations());
 
         // create configuration for the runtime classpath of the jooq code generator (shared by all jooq configuration domain objects)
         Configuration jooqGeneratorRuntimeConfiguration = createJooqGeneratorRuntimeConfiguration(project, codegenExtension);
 
         // create a jooq task for each jooq configuration domain object
         codegenExtension.getConfigurations().configureEach(config -> {
-            String taskName = "generate" + (config.name.equals("main") ? "" : capitalize(config.name)) + "Jooq";
-            TaskProvider<CodeGenerate> jooq = project.getTasks().register(taskName, CodeGenerate.class, codegenExtension.getUseContainer().get(), config,
-                    jooqGeneratorRuntimeConfiguration,
-                    project.getExtensions());
+            String suffix = config.name.equals("main") ? "" : capitalize(config.name);
+            TaskProvider<CodeGenerate> jooq = project.getTasks().register("generate" + suffix + "Jooq", CodeGenerate.class, config, jooqGeneratorRuntimeConfiguration);
             jooq.configure(task -> {
-                task.getServer().set(serverProvider);
-                task.usesService(serverProvider);
+                configureCodeGenerate(task, project, codegenExtension, config, serverProvider);
                 task.setDescription(String.format("Generates the jOOQ sources from the %s jOOQ configuration.", config.name));
-                task.setGroup("jOOQ");
+            });
+
+            // a long-running variant for local development, which regenerates the sources whenever a migration script changes
+            project.getTasks().register("watch" + suffix + "Jooq", CodeGenerate.class, config, jooqGeneratorRuntimeConfiguration).configure(task -> {
+                configureCodeGenerate(task, project, codegenExtension, config, serverProvider);
+                task.getWatch().set(true);
+                // the database is migrated further on every change, which snapshots and checkpoints would get in the way of
+                task.getSchemaSnapshotEnabled().set(false);
+                task.getMigrationCheckpoints().set(false);
+                task.getOutputs().upToDateWhen(Specs.satisfyNone());
+                task.getOutputs().doNotCacheIf("The task watches the migration scripts until it is stopped", Specs.satisfyAll());
+                task.setDescription(String.format("Regenerates the jOOQ sources from the %s jOOQ configuration whenever a migration script changes.", config.name));
             });
 
             // add the output of the jooq task as a source directory of the source set with the matching name (which adds an implicit task dependency)
             SourceSetContainer sourceSets = getSourceSets(project);
             sourceSets.configureEach(sourceSet -> {
                 if (sourceSet.getName().equals(config.name)) {
-                    sourceSet.getJava().srcDir(config.getGenerateSchemaSourceOnCompilation().flatMap(b -> b ? jooq.flatMap(CodeGenerate::getOutputDir) : config.getOutputDir()));
+                    Provider<Directory> generatedSources = config.getGenerateSchemaSourceOnCompilation().flatMap(b -> b ? jooq.flatMap(CodeGenerate::getOutputDir) : config.getOutputDir());
+                    // compile the generated sources with the source set, unless they are compiled into a jar of their own
+                    sourceSet.getJava().srcDir((Callable<Object>) () -> config.getOutput().isCompileSeparately() ? List.of() : generatedSources);
+                    addJooqJar(project, config, sourceSet, generatedSources);
                     project.getDependencies().addProvider(sourceSet.getImplementationConfigurationName(),
                             codegenExtension.getEdition().map(e -> e.getGroupId() + ":jooq").flatMap(ga -> codegenExtension.getVersion().map(v -> ga + ":" + v)));
                     project.getDependencies().add(sourceSet.getImplementationConfigurationName(), "org.postgresql:postgresql:42.7.4");
@@ -58,6 +81,72 @@ public class CodegenGradlePlugin implements Plugin<Project> {
         });
     }
 
+    private static void configureCodeGenerate(CodeGenerate task, Project project, CodegenExtension codegenExtension, CodegenConfig config, Provider<PostgresServer> serverProvider) {
+        task.getUseContainer().set(codegenExtension.getUseContainer());
+        task.getPrewarmContainer().set(codegenExtension.getPrewarmContainer());
+        task.getServer().set(serverProvider);
+        task.usesService(serverProvider);
+        task.getContainerImage().set(codegenExtension.getContainer().getImage());
+        task.getMigrationCheckpoints().set(codegenExtension.getMigrationCheckpoints());
+        task.getExecution().set(codegenExtension.getExecution());
+        task.getAdaptiveJvm().set(codegenExtension.getGeneratorJvm().getAdaptive());
+        task.getGeneratorMaxHeapSize().set(codegenExtension.getGeneratorJvm().getMaxHeapSize());
+        task.getGcLog().set(codegenExtension.getGeneratorJvm().getGcLog());
+        task.getClassDataSharing().set(codegenExtension.getGeneratorJvm().getClassDataSharing());
+        task.getSchemaSource().set(project.provider(() -> config.getDatabase().getSource()));
+        task.getFallbackToContainer().set(project.provider(() -> config.getDatabase().isFallbackToContainer()));
+        task.getMigrationValidation().set(project.provider(() -> config.getDatabase().getMigrationValidation()));
+        // kept out of the build directory, so a clean build still reports the scripts added since the last one
+        task.getMigrationHistoryFile().set(project.getLayout().getProjectDirectory().file(".gradle/jooq-migrations/" + config.name + ".properties"));
+        task.getSchemaSnapshotEnabled().set(project.provider(() -> config.getSchemaSnapshot().isEnabled()));
+        task.getSchemaSnapshotDir().set(project.getLayout().getProjectDirectory().dir(project.provider(() -> config.getSchemaSnapshot().getDirectory())));
+        task.getIncremental().set(project.provider(() -> config.getOutput().isIncremental()));
+        // the generate and watch tasks of a configuration write the same output, so they share the state describing it
+        task.getIncrementalStateDir().set(project.getLayout().getBuildDirectory().dir("jooq-state/" + config.name));
+        task.getShards().set(project.provider(() -> config.getOutput().getShards()));
+        task.getMaxParallelShards().set(codegenExtension.getMaxParallelGenerations());
+        task.getRecordMappers().set(project.provider(() -> config.getOutput().isRecordMappers()));
+        task.getPreRenderedSql().set(project.provider(() -> config.getOutput().isPreRenderedSql()));
+        task.getCopyWriters().set(project.provider(() -> config.getOutput().isCopyWriters()));
+        task.getIndexedFinders().set(project.provider(() -> config.getOutput().isIndexedFinders()));
+        task.getAsyncDaos().set(project.provider(() -> config.getOutput().isAsyncDaos()));
+        task.setGroup("jOOQ");
+    }
+
+    /**
+     * Registers the tasks that compile the generated sources into a jar of their own, which has its own build cache
+     * entry and keeps the generated classes out of the incremental compilation of the source set. The jar is added to the
+     * implementation dependencies when {@code output.compileSeparately} is enabled.
+     */
+    private static void addJooqJar(Project project, CodegenConfig config, SourceSet sourceSet, Provider<Directory> generatedSources) {
+        String suffix = config.name.equals("main") ? "" : capitalize(config.name);
+        ConfigurableFileCollection jooqClasses = project.getObjects().fileCollection();
+        Configuration compileClasspath = project.getConfigurations().getByName(sourceSet.getCompileClasspathConfigurationName());
+
+        TaskProvider<JavaCompile> compile = project.getTasks().register("compile" + suffix + "Jooq", JavaCompile.class, task -> {
+            task.setSource(generatedSources);
+            // the compile classpath of the source set, without the jar this task is compiled into
+            task.setClasspath(project.files((Callable<Object>) () -> compileClasspath.copyRecursive(dependency ->
+                    !(dependency instanceof FileCollectionDependency && ((FileCollectionDependency) dependency).getFiles() == jooqClasses))));
+            task.getDestinationDirectory().set(project.getLayout().getBuildDirectory().dir("classes/jooq/" + config.name));
+            task.getOptions().setEncoding("UTF-8");
+            task.setDescription(String.format("Compiles the jOOQ sources generated from the %s jOOQ configuration.", config.name));
+            task.setGroup("jOOQ");
+        });
+        TaskProvider<Jar> jar = project.getTasks().register("jooq" + suffix + "Jar", Jar.class, task -> {
+            task.from(compile);
+            task.getArchiveClassifier().set(config.name.equals("main") ? "jooq" : "jooq-" + config.name);
+            // a reproducible jar keeps the compile classpath of the source set stable when the generated classes didn't change
+            task.setPreserveFileTimestamps(false);
+            task.setReproducibleFileOrder(true);
+            task.setDescription(String.format("Assembles a jar of the jOOQ classes generated from the %s jOOQ configuration.", config.name));
+            task.setGroup("jOOQ");
+        });
+
+        jooqClasses.from((Callable<Object>) () -> config.getOutput().isCompileSeparately() ? jar : List.of());
+        project.getDependencies().add(sourceSet.getImplementationConfigurationName(), jooqClasses);
+    }
+
     private SourceSetContainer getSourceSets(Project project) {
         if (isAtLeastGradleVersion("8.0")) {
             return project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets();
@@ -81,6 +170,13 @@ public class CodegenGradlePlugin implements Plugin<Project> {
         project.getDependencies().addProvider(jooqGeneratorRuntime.getName(),
                 jooqExtension.getEdition().map(e -> e.getGroupId() + ":jooq-codegen").flatMap(ga -> jooqExtension.getVersion().map(v -> ga + ":" + v)));
         project.getDependencies().add(jooqGeneratorRuntime.getName(), "io.github.alexritian:codegen-gradle-plugin-runtime:1.0.8");
+        // the DDL schema source needs the DDLDatabase of the jOOQ meta extensions
+        jooqGeneratorRuntime.withDependencies(dependencies -> {
+            if (jooqExtension.getConfigurations().stream().anyMatch(config -> config.getDatabase().getSource() == SchemaSourceType.DDL)) {
+                dependencies.add(project.getDependencies().create(
+                        jooqExtension.getEdition().get().getGroupId() + ":jooq-meta-extensions:" + jooqExtension.getVersion().get()));
+            }
+        });
         project.getDependencies().add("implementation", "io.github.alexritian:codegen-gradle-plugin-runtime:1.0.8");
         return jooqGeneratorRuntime;
     }
@@ -0,0 +1,200 @@
+package io.github.alexritian.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+/**
+ * Timings and sizes of one {@link CodeGenerate} run, written as a JSON report.
+ *
+ * @author Too_young
+ */
+public final class CodegenMetrics {
+    private final Map<String, Object> report = new LinkedHashMap<>();
+    private final Map<String, Object> phases = new LinkedHashMap<>();
+    private final List<Map<String, Object>> migrations = new ArrayList<>();
+    private final Map<String, Object> schema = new LinkedHashMap<>();
+    private final Map<String, Object> output = new LinkedHashMap<>();
+    private final Map<String, Object> generator = new LinkedHashMap<>();
+
+    public CodegenMetrics(String taskPath) {
+        report.put("task", taskPath);
+        report.put("phasesMillis", phases);
+        report.put("migrations", migrations);
+        report.put("schema", schema);
+        report.put("output", output);
+        report.put("generator", generator);
+    }
+
+    public void put(String key, Object value) {
+        report.put(key, value);
+    }
+
+    public void time(String phase, Runnable action) {
+        time(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action and adds its wall time to the given phase.
+     */
+    public <T> T time(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            phases.merge(phase, millis, (a, b) -> (Long) a + (Long) b);
+        }
+    }
+
+    public void migration(String version, String script, long millis) {
+        Map<String, Object> migration = new LinkedHashMap<>();
+        migration.put("version", version);
+        migration.put("script", script);
+        migration.put("millis", millis);
+        migrations.add(migration);
+    }
+
+    public void schema(int tables, int columns) {
+        schema.put("tables", tables);
+        schema.put("columns", columns);
+    }
+
+    /**
+     * @return the number of tables recorded by {@link #schema}, {@code null} if unknown
+     */
+    public Integer getSchemaTables() {
+        return (Integer) schema.get("tables");
+    }
+
+    /**
+     * @return the number of columns recorded by {@link #schema}, {@code null} if unknown
+     */
+    public Integer getSchemaColumns() {
+        return (Integer) schema.get("columns");
+    }
+
+    public void forcedTypes(int forcedTypes) {
+        schema.put("forcedTypes", forcedTypes);
+    }
+
+    public void output(DirectorySync.Result result) {
+        output.put("files", result.getFiles());
+        output.put("bytes", result.getBytes());
+        output.put("added", result.getAdded());
+        output.put("changed", result.getChanged());
+        output.put("removed", result.getRemoved());
+    }
+
+    /**
+     * Adds the statistics written by {@link GeneratorStatistics}, if the file exists. The statistics of several
+     * generator runs add up, except for the peak heap and the longest pause, which are the largest of all runs.
+     */
+    public void generator(File statisticsFile) {
+        if (!statisticsFile.isFile()) {
+            return;
+        }
+        Properties statistics = new Properties();
+        try (var in = Files.newInputStream(statisticsFile.toPath())) {
+            statistics.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        statistics.stringPropertyNames().stream().sorted()
+                .forEach(name -> generator.merge(name, Long.parseLong(statistics.getProperty(name)), (a, b) ->
+                        name.equals(GeneratorStatistics.PEAK_HEAP_BYTES) || name.equals(GeneratorStatistics.MAX_GC_PAUSE_MILLIS)
+                                ? Math.max((Long) a, (Long) b) : (Long) a + (Long) b));
+    }
+
+    public void generator(String key, Object value) {
+        generator.put(key, value);
+    }
+
+    public Map<String, Object> getGenerator() {
+        return generator;
+    }
+
+    public void write(File file) {
+        StringBuilder json = new StringBuilder();
+        appendValue(json, report, "");
+        json.append('\n');
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.writeString(file.toPath(), json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendValue(StringBuilder json, Object value, String indent) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.isEmpty()) {
+                json.append("{}");
+                return;
+            }
+            json.append("{\n");
+            String separator = "";
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                json.append(separator).append(indent).append("  ");
+                appendString(json, entry.getKey().toString());
+                json.append(": ");
+                appendValue(json, entry.getValue(), indent + "  ");
+                separator = ",\n";
+            }
+            json.append('\n').append(indent).append('}');
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (list.isEmpty()) {
+                json.append("[]");
+                return;
+            }
+            json.append("[\n");
+            String separator = "";
+            for (Object element : list) {
+                json.append(separator).append(indent).append("  ");
+                appendValue(json, element, indent + "  ");
+                separator = ",\n";
+            }
+            json.append('\n').append(indent).append(']');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value == null) {
+            json.append("null");
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The image and server settings of the Postgres container used for code generation. The database is thrown away after
+ * the code generation, so the defaults trade durability for migration speed.
+ *
+ * @author Too_young
+ */
+public class ContainerProfile {
+
+    private static final String DEFAULT_IMAGE = "postgres:16.4";
+
+    private final Property<String> image;
+    private final Property<Boolean> tmpfs;
+    private final Property<Integer> poolSize;
+    private final Property<Boolean> fsync;
+    private final Property<Boolean> synchronousCommit;
+    private final Property<Boolean> fullPageWrites;
+    private final Property<String> sharedBuffers;
+    private final Property<String> workMem;
+    private final Property<String> maintenanceWorkMem;
+    private final Provider<List<String>> serverSettings;
+
+    @Inject
+    public ContainerProfile(ObjectFactory objects, ProviderFactory providers) {
+        this.image = objects.property(String.class).convention(DEFAULT_IMAGE);
+        this.tmpfs = objects.property(Boolean.class).convention(true);
+        this.poolSize = objects.property(Integer.class).convention(1);
+        this.fsync = objects.property(Boolean.class).convention(false);
+        this.synchronousCommit = objects.property(Boolean.class).convention(false);
+        this.fullPageWrites = objects.property(Boolean.class).convention(false);
+        this.sharedBuffers = objects.property(String.class).convention("256MB");
+        this.workMem = objects.property(String.class).convention("64MB");
+        this.maintenanceWorkMem = objects.property(String.class).convention("256MB");
+        this.serverSettings = providers.provider(this::serverSettings);
+
+        image.finalizeValueOnRead();
+        tmpfs.finalizeValueOnRead();
+        poolSize.finalizeValueOnRead();
+        fsync.finalizeValueOnRead();
+        synchronousCommit.finalizeValueOnRead();
+        fullPageWrites.finalizeValueOnRead();
+        sharedBuffers.finalizeValueOnRead();
+        workMem.finalizeValueOnRead();
+        maintenanceWorkMem.finalizeValueOnRead();
+    }
+
+    @SuppressWarnings("unused")
+    public Property<String> getImage() {
+        return image;
+    }
+
+    /**
+     * @return whether the data directory is kept in memory
+     */
+    @SuppressWarnings("unused")
+    public Property<Boolean> getTmpfs() {
+        return tmpfs;
+    }
+
+    /**
+     * @return the maximum number of containers started to run code generations in parallel, more containers are only
+     * started while all running ones are in use
+     */
+    @SuppressWarnings("unused")
+    public Property<Integer> getPoolSize() {
+        return poolSize;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Boolean> getFsync() {
+        return fsync;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Boolean> getSynchronousCommit() {
+        return synchronousCommit;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<Boolean> getFullPageWrites() {
+        return fullPageWrites;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<String> getSharedBuffers() {
+        return sharedBuffers;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<String> getWorkMem() {
+        return workMem;
+    }
+
+    @SuppressWarnings("unused")
+    public Property<String> getMaintenanceWorkMem() {
+        return maintenanceWorkMem;
+    }
+
+    /**
+     * @return the settings passed to the server as {@code -c name=value} options
+     */
+    public Provider<List<String>> getServerSettings() {
+        return serverSettings;
+    }
+
+    private List<String> serverSettings() {
+        List<String> settings = new ArrayList<>();
+        settings.add("fsync=" + onOff(fsync.get()));
+        settings.add("synchronous_commit=" + onOff(synchronousCommit.get()));
+        settings.add("full_page_writes=" + onOff(fullPageWrites.get()));
+        settings.add("shared_buffers=" + sharedBuffers.get());
+        settings.add("work_mem=" + workMem.get());
+        settings.add("maintenance_work_mem=" + maintenanceWorkMem.get());
+        return settings;
+    }
+
+    private static String onOff(boolean value) {
+        return value ? "on" : "off";
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.alexritian.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Makes a target directory identical to a source directory while only touching the files that differ, so unchanged
+ * files keep their timestamps and don't trigger recompilation.
+ *
+ * @author Too_young
+ */
+public final class DirectorySync {
+
+    private DirectorySync() {
+    }
+
+    /**
+     * Moves the new and changed files from the source to the target directory and deletes the files of the target
+     * directory that don't exist in the source directory.
+     */
+    public static Result sync(File source, File target) throws IOException {
+        return sync(source, target, Set.of());
+    }
+
+    /**
+     * Like {@link #sync(File, File)}, but keeps the given files of the target directory even if they don't exist in
+     * the source directory.
+     *
+     * @param retained paths relative to the target directory, separated by {@code /}
+     */
+    public static Result sync(File source, File target, Set<String> retained) throws IOException {
+        Path sourceRoot = source.toPath();
+        Path targetRoot = target.toPath();
+        Result result = new Result();
+
+        Set<Path> sourceFiles = new HashSet<>();
+        for (Path sourceFile : list(sourceRoot)) {
+            Path relativePath = sourceRoot.relativize(sourceFile);
+            sourceFiles.add(relativePath);
+            Path targetFile = targetRoot.resolve(relativePath);
+            long size = Files.size(sourceFile);
+            result.files++;
+            result.bytes += size;
+            if (!Files.exists(targetFile)) {
+                Files.createDirectories(targetFile.getParent());
+                Files.move(sourceFile, targetFile);
+                result.added++;
+            } else if (Files.size(targetFile) != size || !sameContent(sourceFile, targetFile)) {
+                Files.move(sourceFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+                result.changed++;
+            }
+        }
+
+        for (Path targetFile : list(targetRoot)) {
+            Path relativePath = targetRoot.relativize(targetFile);
+            if (!sourceFiles.contains(relativePath) && !retained.contains(relativePath.toString().replace(File.separatorChar, '/'))) {
+                Files.delete(targetFile);
+                result.removed++;
+            }
+        }
+        deleteEmptyDirectories(targetRoot);
+        return result;
+    }
+
+    /**
+     * Moves the files from the source to the target directory that don't exist in the target directory yet.
+     *
+     * @return the number of moved files
+     */
+    public static int merge(File source, File target) throws IOException {
+        Path sourceRoot = source.toPath();
+        Path targetRoot = target.toPath();
+        int moved = 0;
+        for (Path sourceFile : list(sourceRoot)) {
+            Path targetFile = targetRoot.resolve(sourceRoot.relativize(sourceFile));
+            if (!Files.exists(targetFile)) {
+                Files.createDirectories(targetFile.getParent());
+                Files.move(sourceFile, targetFile);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private static List<Path> list(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static boolean sameContent(Path first, Path second) throws IOException {
+        try (InputStream firstStream = Files.newInputStream(first); InputStream secondStream = Files.newInputStream(second)) {
+            byte[] firstBuffer = new byte[8192];
+            byte[] secondBuffer = new byte[8192];
+            int read;
+            while ((read = firstStream.readNBytes(firstBuffer, 0, firstBuffer.length)) > 0) {
+                if (secondStream.readNBytes(secondBuffer, 0, read) != read
+                        || !Arrays.equals(firstBuffer, 0, read, secondBuffer, 0, read)) {
+                    return false;
+                }
+            }
+            return secondStream.read() == -1;
+        }
+    }
+
+    private static void deleteEmptyDirectories(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> directories;
+        try (Stream<Path> files = Files.walk(root)) {
+            directories = files.filter(Files::isDirectory).filter(directory -> !directory.equals(root))
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList());
+        }
+        for (Path directory : directories) {
+            try (Stream<Path> entries = Files.list(directory)) {
+                if (entries.findAny().isEmpty()) {
+                    Files.delete(directory);
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of files the source directory contained and how the target directory changed.
+     */
+    public static final class Result {
+        private int files;
+        private long bytes;
+        private int added;
+        private int changed;
+        private int removed;
+
+        public int getFiles() {
+            return files;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getChanged() {
+            return changed;
+        }
+
+        public int getRemoved() {
+            return removed;
+        }
+
+        @Override
+        public String toString() {
+            return files + " files, " + added + " added, " + changed + " changed, " + removed + " removed";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.jooq.codegen.GenerationTool;
+
+/**
+ * Invokes the jOOQ code generator in a Gradle worker. It is loaded from the generator classpath, so it must not depend
+ * on anything but jOOQ and the Gradle API.
+ *
+ * @author Too_young
+ */
+public abstract class GenerateJooqAction implements WorkAction<GenerateJooqAction.Parameters> {
+
+    public interface Parameters extends WorkParameters {
+        /**
+         * @return the jOOQ code generation configuration as XML
+         */
+        Property<String> getConfiguration();
+
+        /**
+         * @return the file the {@link GeneratorStatistics} are written to, if any
+         */
+        RegularFileProperty getStatisticsFile();
+    }
+
+    @Override
+    public void execute() {
+        GeneratorStatistics statistics = GeneratorStatistics.start();
+        try {
+            GenerationTool.generate(getParameters().getConfiguration().get());
+        } catch (Exception e) {
+            throw new GradleException("jOOQ code generation failed", e);
+        }
+        if (getParameters().getStatisticsFile().isPresent()) {
+            statistics.write(getParameters().getStatisticsFile().get().getAsFile());
+        }
+    }
+
+}
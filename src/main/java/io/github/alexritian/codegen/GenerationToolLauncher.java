@@ -0,0 +1,28 @@
+package io.github.alexritian.codegen;
+
+import org.jooq.codegen.GenerationTool;
+
+import java.io.File;
+
+/**
+ * Main class of the forked generator JVM. Runs {@link GenerationTool} and writes the {@link GeneratorStatistics} to the
+ * file named by the {@value #STATISTICS_FILE_PROPERTY} system property.
+ *
+ * @author Too_young
+ */
+public final class GenerationToolLauncher {
+    public static final String STATISTICS_FILE_PROPERTY = "codegen.statisticsFile";
+
+    private GenerationToolLauncher() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        GeneratorStatistics statistics = GeneratorStatistics.start();
+        GenerationTool.main(args);
+        String statisticsFile = System.getProperty(STATISTICS_FILE_PROPERTY);
+        if (statisticsFile != null) {
+            statistics.write(new File(statisticsFile));
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package io.github.alexritian.codegen;
+
+/**
+ * How the jOOQ code generator is invoked by {@link CodeGenerate}.
+ *
+ * @author Too_young
+ */
+public enum GeneratorExecution {
+    /**
+     * Forks a new JVM for every generation, configured by {@link CodeGenerate#setJavaExecSpec}.
+     */
+    JAVA_EXEC,
+    /**
+     * Runs the generator inside the Gradle daemon, in a classloader isolated from the build.
+     */
+    WORKER_CLASSLOADER,
+    /**
+     * Runs the generator in a Gradle worker daemon that is reused across tasks and builds, configured by
+     * {@link CodeGenerate#setWorkerForkOptions}.
+     */
+    WORKER_PROCESS
+}
@@ -0,0 +1,102 @@
+package io.github.alexritian.codegen;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Sizes and tunes the JVM running the jOOQ generator. The generator is a short-lived batch job, so it runs with the
+ * throughput collector, and small generations skip the optimizing compiler, which doesn't pay off before the JVM exits.
+ *
+ * @author Too_young
+ */
+final class GeneratorJvmOptions {
+    private static final long MIN_HEAP_MEGABYTES = 256;
+    private static final long SMALL_HEAP_MEGABYTES = 512;
+    // about 128 KB per column, the 40,000 columns of the xlarge benchmark schema need more than 4 GB
+    private static final long COLUMNS_PER_MEGABYTE = 8;
+    // about 512 KB per table for the classes generated for it, which are split across the shards
+    private static final long TABLES_PER_MEGABYTE = 2;
+    // the default -XX:MaxRAMPercentage of the JVM
+    private static final long DEFAULT_HEAP_RAM_FRACTION = 4;
+    private static final Pattern COLLECTOR_OPTION = Pattern.compile("-XX:\\+Use\\w+GC");
+    private static final Pattern COMPILER_OPTION = Pattern.compile("-XX:(TieredStopAtLevel=.*|[+-]TieredCompilation)");
+
+    private GeneratorJvmOptions() {
+    }
+
+    /**
+     * Estimates the heap from the catalog, which every shard holds completely, and the generated classes, which are
+     * split across the shards. The estimate is rounded up to a power of two, so the heap only changes when the schema
+     * grows considerably.
+     *
+     * @return the estimated heap in megabytes, at most the given limit
+     */
+    static long estimateMegabytes(int tables, int columns, int shards, long limitMegabytes) {
+        long estimate = MIN_HEAP_MEGABYTES + columns / COLUMNS_PER_MEGABYTE + tables / TABLES_PER_MEGABYTE / Math.max(1, shards);
+        long heap = MIN_HEAP_MEGABYTES;
+        while (heap < estimate && heap < limitMegabytes) {
+            heap *= 2;
+        }
+        return Math.min(heap, limitMegabytes);
+    }
+
+    /**
+     * The estimate only ever raises the heap, a schema it underestimates still gets the heap the JVM would choose.
+     *
+     * @param defaultMegabytes the heap the JVM chooses without {@code -Xmx}
+     * @return the maximum heap in megabytes
+     */
+    static long heapMegabytes(int tables, int columns, int shards, long limitMegabytes, long defaultMegabytes) {
+        return Math.max(estimateMegabytes(tables, columns, shards, limitMegabytes), defaultMegabytes);
+    }
+
+    /**
+     * @return the heap the JVM chooses without {@code -Xmx} on this machine, a quarter of the physical memory
+     */
+    static long defaultHeapMegabytes() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        long memory = os instanceof com.sun.management.OperatingSystemMXBean bean
+                ? bean.getTotalMemorySize()
+                : Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_RAM_FRACTION;
+        return memory / DEFAULT_HEAP_RAM_FRACTION / (1024 * 1024);
+    }
+
+    /**
+     * @param size a size in the format of {@code -Xmx}, e.g. {@code 512m} or {@code 8g}
+     */
+    static long parseMegabytes(String size) {
+        String value = size.trim().toLowerCase(Locale.ROOT);
+        long factor = switch (value.charAt(value.length() - 1)) {
+            case 'k' -> 1;
+            case 'm' -> 1024;
+            case 'g' -> 1024 * 1024;
+            case 't' -> 1024 * 1024 * 1024;
+            default -> 0;
+        };
+        if (factor == 0) {
+            return Long.parseLong(value) / (1024 * 1024);
+        }
+        return Long.parseLong(value.substring(0, value.length() - 1)) * factor / 1024;
+    }
+
+    /**
+     * @param configuredArgs the JVM arguments configured already, whose choices are kept, or {@code null}
+     * @param estimateMegabytes the {@link #estimateMegabytes estimated} heap, which tells small schemas apart
+     * @return the collector and compiler options to add
+     */
+    static List<String> tuningArgs(List<String> configuredArgs, long estimateMegabytes) {
+        List<String> jvmArgs = configuredArgs == null ? List.of() : configuredArgs;
+        List<String> args = new ArrayList<>();
+        if (jvmArgs.stream().noneMatch(arg -> COLLECTOR_OPTION.matcher(arg).matches())) {
+            args.add("-XX:+UseParallelGC");
+        }
+        if (estimateMegabytes <= SMALL_HEAP_MEGABYTES && jvmArgs.stream().noneMatch(arg -> COMPILER_OPTION.matcher(arg).matches())) {
+            args.add("-XX:TieredStopAtLevel=1");
+        }
+        return args;
+    }
+}
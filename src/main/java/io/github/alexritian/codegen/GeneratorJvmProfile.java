@@ -0,0 +1,62 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Property;
+
+import javax.inject.Inject;
+
+/**
+ * The settings of the JVM the jOOQ generator is forked into. Settings made with {@code javaExecSpec} or
+ * {@code workerForkOptions} take precedence.
+ *
+ * @author Too_young
+ */
+public class GeneratorJvmProfile {
+
+    private final Property<Boolean> adaptive;
+    private final Property<String> maxHeapSize;
+    private final Property<Boolean> gcLog;
+    private final Property<Boolean> classDataSharing;
+
+    @Inject
+    public GeneratorJvmProfile(ObjectFactory objects) {
+        this.adaptive = objects.property(Boolean.class).convention(false);
+        this.maxHeapSize = objects.property(String.class).convention("8g");
+        this.gcLog = objects.property(Boolean.class).convention(false);
+        this.classDataSharing = objects.property(Boolean.class).convention(false);
+    }
+
+    /**
+     * @return whether the heap is sized from the number of tables and columns, and the collector and compiler are
+     * chosen for a short-lived batch JVM
+     */
+    @SuppressWarnings("unused")
+    public Property<Boolean> getAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return the largest heap the estimate of an adaptive JVM goes up to, in the format of {@code -Xmx}
+     */
+    @SuppressWarnings("unused")
+    public Property<String> getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    /**
+     * @return whether the garbage collections are logged next to the codegen report
+     */
+    @SuppressWarnings("unused")
+    public Property<Boolean> getGcLog() {
+        return gcLog;
+    }
+
+    /**
+     * @return whether the classes of the generator classpath are shared from an archive created by the first run
+     */
+    @SuppressWarnings("unused")
+    public Property<Boolean> getClassDataSharing() {
+        return classDataSharing;
+    }
+
+}
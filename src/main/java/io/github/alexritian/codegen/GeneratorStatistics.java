@@ -0,0 +1,105 @@
+package io.github.alexritian.codegen;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the memory and garbage collection of the JVM running the jOOQ generator. It runs next to the generator, so
+ * it must only depend on the JDK.
+ *
+ * @author Too_young
+ */
+public final class GeneratorStatistics {
+    public static final String PEAK_HEAP_BYTES = "peakHeapBytes";
+    public static final String GC_COUNT = "gcCount";
+    public static final String GC_TIME_MILLIS = "gcTimeMillis";
+    public static final String MAX_GC_PAUSE_MILLIS = "maxGcPauseMillis";
+
+    private final long gcCountAtStart;
+    private final long gcTimeAtStart;
+    private final AtomicLong maxGcPause = new AtomicLong();
+    private final NotificationListener gcListener = this::collected;
+
+    private GeneratorStatistics() {
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        this.gcCountAtStart = gcCount();
+        this.gcTimeAtStart = gcTime();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(gcListener, null, null);
+            }
+        }
+    }
+
+    private void collected(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // the cycles of concurrent collectors don't stop the generator
+        if (!info.getGcName().contains("Concurrent") && !info.getGcName().contains("Cycles")) {
+            maxGcPause.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+        }
+    }
+
+    /**
+     * Starts measuring from the current state of the JVM, which may have run other generations before.
+     */
+    public static GeneratorStatistics start() {
+        return new GeneratorStatistics();
+    }
+
+    public void write(File file) {
+        // a worker daemon runs further generations, which must not report to this instance
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                try {
+                    emitter.removeNotificationListener(gcListener);
+                } catch (ListenerNotFoundException e) {
+                    // not registered with this collector
+                }
+            }
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        Properties statistics = new Properties();
+        statistics.setProperty(PEAK_HEAP_BYTES, Long.toString(peakHeap));
+        statistics.setProperty(GC_COUNT, Long.toString(gcCount() - gcCountAtStart));
+        statistics.setProperty(GC_TIME_MILLIS, Long.toString(gcTime() - gcTimeAtStart));
+        statistics.setProperty(MAX_GC_PAUSE_MILLIS, Long.toString(maxGcPause.get()));
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            statistics.store(out, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(t -> t > 0).sum();
+    }
+
+}
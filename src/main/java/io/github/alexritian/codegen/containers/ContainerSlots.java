@@ -0,0 +1,105 @@
+package io.github.alexritian.codegen.containers;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The containers of a pool and the number of databases leased on each of them. A slot is only started by the first
+ * lease on it, or by the prewarm of the first slot.
+ *
+ * @param <C> the type of the container
+ * @author Too_young
+ */
+final class ContainerSlots<C> {
+    private final List<Slot<C>> slots = new ArrayList<>();
+
+    /**
+     * One container of the pool, started on first use.
+     */
+    static final class Slot<C> {
+        private final int index;
+        private final Deque<String> spareDatabases = new ConcurrentLinkedDeque<>();
+        private CompletableFuture<C> startup;
+        private int leases;
+
+        private Slot(int index) {
+            this.index = index;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the databases created ahead of the next leases on this container
+         */
+        Deque<String> getSpareDatabases() {
+            return spareDatabases;
+        }
+    }
+
+    /**
+     * A lease on a slot. The lease that has to start the container of its slot completes the startup.
+     */
+    record Lease<C>(Slot<C> slot, CompletableFuture<C> startup, boolean starting) {
+    }
+
+    ContainerSlots(int size) {
+        for (int i = 0; i < Math.max(1, size); i++) {
+            slots.add(new Slot<>(i));
+        }
+    }
+
+    /**
+     * Leases the least loaded slot. Another container is only started when all running ones are in use and the pool
+     * isn't full yet.
+     */
+    synchronized Lease<C> lease() {
+        Slot<C> leastLoaded = null;
+        for (Slot<C> slot : slots) {
+            // prefer a running container over starting another one with the same load
+            if (leastLoaded == null || slot.leases < leastLoaded.leases
+                    || slot.leases == leastLoaded.leases && leastLoaded.startup == null && slot.startup != null) {
+                leastLoaded = slot;
+            }
+        }
+        leastLoaded.leases++;
+        boolean starting = leastLoaded.startup == null;
+        if (starting) {
+            leastLoaded.startup = new CompletableFuture<>();
+        }
+        return new Lease<>(leastLoaded, leastLoaded.startup, starting);
+    }
+
+    synchronized void release(Slot<C> slot) {
+        slot.leases--;
+    }
+
+    /**
+     * @return the startup of the first slot, {@code null} if it was started already
+     */
+    synchronized CompletableFuture<C> prewarm() {
+        Slot<C> slot = slots.get(0);
+        if (slot.startup != null) {
+            return null;
+        }
+        slot.startup = new CompletableFuture<>();
+        return slot.startup;
+    }
+
+    /**
+     * @return the startups of the slots that were started
+     */
+    synchronized List<CompletableFuture<C>> startups() {
+        List<CompletableFuture<C>> startups = new ArrayList<>();
+        for (Slot<C> slot : slots) {
+            if (slot.startup != null) {
+                startups.add(slot.startup);
+            }
+        }
+        return startups;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.alexritian.codegen.containers;
+
+/**
+ * An empty database on one of the pooled containers, reserved for a single task until it is closed. Closing the lease
+ * drops the database.
+ *
+ * @author Too_young
+ */
+public final class DatabaseLease implements AutoCloseable {
+    private final Runnable release;
+    private final String driverClassName;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private boolean released;
+
+    DatabaseLease(Runnable release, String driverClassName, String jdbcUrl, String username, String password) {
+        this.release = release;
+        this.driverClassName = driverClassName;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!released) {
+            released = true;
+            release.run();
+        }
+    }
+}
@@ -1,33 +1,311 @@
 package io.github.alexritian.codegen.containers;
 
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.DockerException;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Image;
+import io.github.alexritian.codegen.ContainerProfile;
 import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Too_young
  */
-public abstract class PostgresServer implements BuildService<BuildServiceParameters.None>, AutoCloseable {
-    private final PostgreSQLContainer<?> container;
+public abstract class PostgresServer implements BuildService<PostgresServer.Params>, AutoCloseable {
+    private static final Logger LOGGER = Logging.getLogger(PostgresServer.class);
 
-    public PostgresServer() {
-        container = new PostgreSQLContainer<>("postgres:latest");
-        container.start();
+    private static final String CHECKPOINT_REPOSITORY = "codegen-postgres-checkpoint";
+    private static final String CHECKPOINT_SCHEMA_LABEL = "io.github.alexritian.codegen.checkpoint.schema";
+    private static final String CHECKPOINT_IMAGE_LABEL = "io.github.alexritian.codegen.checkpoint.image";
+    private static final String PGDATA = "/var/lib/postgresql/data";
+    // the data directory declared as a volume by the postgres image is not part of a committed image
+    private static final String CHECKPOINT_PGDATA = "/var/lib/postgresql/checkpoint";
+    private static final String READY_LOG_MESSAGE = ".*database system is ready to accept connections.*\\s";
+    // parallel query workers allocate dynamic shared memory in /dev/shm
+    private static final long SHARED_MEMORY_SIZE = 256L * 1024 * 1024;
+
+    // a pristine template, so user changes to template1 never leak into the leased databases
+    private static final String DATABASE_TEMPLATE = "template0";
+
+    private final List<PostgreSQLContainer<?>> checkpointContainers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger databaseCounter = new AtomicInteger();
+    private final ExecutorService recycler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "codegen-postgres-recycler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ContainerSlots<PostgreSQLContainer<?>> slots;
+
+    public interface Params extends BuildServiceParameters {
+        Property<String> getImage();
+
+        Property<Boolean> getTmpfs();
+
+        Property<Integer> getPoolSize();
+
+        ListProperty<String> getServerSettings();
     }
 
     @Override
     public void close() throws Exception {
-        container.stop();
+        recycler.shutdown();
+        if (!recycler.awaitTermination(30, TimeUnit.SECONDS)) {
+            recycler.shutdownNow();
+        }
+        checkpointContainers.forEach(PostgreSQLContainer::stop);
+        for (CompletableFuture<PostgreSQLContainer<?>> startup : slots().startups()) {
+            // a container that is still starting in the background is stopped once it is up
+            startup.thenAccept(PostgreSQLContainer::stop).exceptionally(e -> null).join();
+        }
+    }
+
+    /**
+     * Starts the first container of the pool on a background thread, so that {@link #lease(String)} only waits for the
+     * rest of the startup.
+     */
+    public void prewarm() {
+        CompletableFuture<PostgreSQLContainer<?>> startup = slots().prewarm();
+        if (startup != null) {
+            LOGGER.info("Starting the codegen database container in the background");
+            Thread thread = new Thread(() -> start(startup), "codegen-postgres-startup");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Leases an empty database on the least loaded container of the pool. Another container is only started when all
+     * running ones are in use and the pool isn't full yet.
+     *
+     * @param owner identifies the user of the database in the log, e.g. the task path
+     */
+    public DatabaseLease lease(String owner) {
+        ContainerSlots.Lease<PostgreSQLContainer<?>> lease = slots().lease();
+        ContainerSlots.Slot<PostgreSQLContainer<?>> slot = lease.slot();
+        try {
+            if (lease.starting()) {
+                start(lease.startup());
+            }
+            PostgreSQLContainer<?> container = join(lease.startup());
+            String database = slot.getSpareDatabases().poll();
+            if (database == null) {
+                database = createDatabase(container, slot);
+            }
+            LOGGER.info("Leased database {} on container {} to {}", database, slot.getIndex(), owner);
+
+            String leased = database;
+            return new DatabaseLease(() -> release(slot, container, leased), container.getDriverClassName(),
+                    jdbcUrl(container, database), container.getUsername(), container.getPassword());
+        } catch (RuntimeException e) {
+            slots().release(slot);
+            throw e;
+        }
+    }
+
+    private synchronized ContainerSlots<PostgreSQLContainer<?>> slots() {
+        if (slots == null) {
+            slots = new ContainerSlots<>(getParameters().getPoolSize().get());
+        }
+        return slots;
+    }
+
+    private void start(CompletableFuture<PostgreSQLContainer<?>> startup) {
+        try {
+            startup.complete(startContainer());
+        } catch (RuntimeException e) {
+            startup.completeExceptionally(e);
+        }
+    }
+
+    private void release(ContainerSlots.Slot<PostgreSQLContainer<?>> slot, PostgreSQLContainer<?> container, String database) {
+        slots().release(slot);
+        // drop the used database and clone a spare one for the next lease off the critical path of the task
+        recycler.execute(() -> {
+            try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP DATABASE IF EXISTS \"" + database + "\"");
+                if (slot.getSpareDatabases().isEmpty()) {
+                    slot.getSpareDatabases().add(createDatabase(statement));
+                }
+            } catch (SQLException e) {
+                LOGGER.warn("Failed to recycle database {}: {}", database, e.getMessage());
+            }
+        });
+    }
+
+    private String createDatabase(PostgreSQLContainer<?> container, ContainerSlots.Slot<PostgreSQLContainer<?>> slot) {
+        try (Connection connection = DriverManager.getConnection(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             Statement statement = connection.createStatement()) {
+            return createDatabase(statement);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to create a database on container " + slot.getIndex(), e);
+        }
     }
 
-    public PostgreSQLContainer<?> getContainer() {
+    private String createDatabase(Statement statement) throws SQLException {
+        String database = "codegen_" + databaseCounter.incrementAndGet();
+        statement.execute("CREATE DATABASE \"" + database + "\" TEMPLATE " + DATABASE_TEMPLATE);
+        return database;
+    }
+
+    private static String jdbcUrl(PostgreSQLContainer<?> container, String database) {
+        return "jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + database;
+    }
+
+    private static PostgreSQLContainer<?> join(CompletableFuture<PostgreSQLContainer<?>> startup) {
+        try {
+            return startup.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private PostgreSQLContainer<?> startContainer() {
+        PostgreSQLContainer<?> container = configure(new PostgreSQLContainer<>(DockerImageName.parse(getParameters().getImage().get()).asCompatibleSubstituteFor("postgres")));
+        if (getParameters().getTmpfs().get()) {
+            container.withTmpFs(Map.of(PGDATA, "rw"));
+        }
+        container.start();
         return container;
     }
 
-    public static Provider<PostgresServer> getProvider(Project project) {
-        return project.getGradle().getSharedServices().registerIfAbsent("postgres", PostgresServer.class);
+    private PostgreSQLContainer<?> configure(PostgreSQLContainer<?> container) {
+        List<String> command = new ArrayList<>();
+        command.add("postgres");
+        for (String setting : getParameters().getServerSettings().get()) {
+            command.add("-c");
+            command.add(setting);
+        }
+        return container
+                .withCommand(command.toArray(new String[0]))
+                .withSharedMemorySize(SHARED_MEMORY_SIZE);
+    }
+
+    /**
+     * @param checkpointTags the checkpoint tags of a migration history, newest first
+     * @return the newest of the given checkpoints that exists locally, {@code null} if there is none
+     */
+    public String findCheckpoint(List<String> checkpointTags) {
+        DockerClient client = DockerClientFactory.instance().client();
+        return checkpointTags.stream()
+                .filter(tag -> imageExists(client, CHECKPOINT_REPOSITORY + ":" + tag))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Starts a dedicated container from the given checkpoint, or from the configured image if the checkpoint is
+     * {@code null}. The container is stopped when the service is closed.
+     */
+    public PostgreSQLContainer<?> startCheckpointContainer(String checkpointTag) {
+        PostgreSQLContainer<?> checkpointContainer;
+        if (checkpointTag != null) {
+            checkpointContainer = new PostgreSQLContainer<>(DockerImageName.parse(CHECKPOINT_REPOSITORY + ":" + checkpointTag).asCompatibleSubstituteFor("postgres"))
+                    // the database is initialized already, so the server only starts once
+                    .waitingFor(Wait.forLogMessage(READY_LOG_MESSAGE, 1));
+        } else {
+            checkpointContainer = new PostgreSQLContainer<>(DockerImageName.parse(getParameters().getImage().get()).asCompatibleSubstituteFor("postgres"));
+        }
+        // the data directory must not be on a tmpfs to be part of the committed image
+        configure(checkpointContainer).withEnv("PGDATA", CHECKPOINT_PGDATA);
+        checkpointContainers.add(checkpointContainer);
+        checkpointContainer.start();
+        return checkpointContainer;
+    }
+
+    /**
+     * Commits the migrated state of a container started by {@link #startCheckpointContainer(String)} as a checkpoint
+     * image and removes the older checkpoints of the same schema and image.
+     */
+    public void checkpoint(PostgreSQLContainer<?> checkpointContainer, String schema, String checkpointTag) {
+        // flush all changes to the data files, so the committed image doesn't depend on crash recovery
+        try (Connection connection = DriverManager.getConnection(checkpointContainer.getJdbcUrl(), checkpointContainer.getUsername(), checkpointContainer.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to checkpoint the migrated database", e);
+        }
+
+        DockerClient client = DockerClientFactory.instance().client();
+        String image = getParameters().getImage().get();
+        client.commitCmd(checkpointContainer.getContainerId())
+                .withRepository(CHECKPOINT_REPOSITORY)
+                .withTag(checkpointTag)
+                .withPause(true)
+                // replace the session label inherited from the container, so the image survives the cleanup of the session
+                .withLabels(Map.of(
+                        DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, "",
+                        CHECKPOINT_SCHEMA_LABEL, schema,
+                        CHECKPOINT_IMAGE_LABEL, image))
+                .exec();
+        LOGGER.info("Created checkpoint {} of schema {}", checkpointTag, schema);
+
+        List<Image> outdated = client.listImagesCmd()
+                .withLabelFilter(Map.of(CHECKPOINT_SCHEMA_LABEL, schema, CHECKPOINT_IMAGE_LABEL, image))
+                .exec();
+        for (Image outdatedImage : outdated) {
+            if (outdatedImage.getRepoTags() == null) {
+                continue;
+            }
+            for (String repoTag : outdatedImage.getRepoTags()) {
+                if (repoTag.startsWith(CHECKPOINT_REPOSITORY + ":") && !repoTag.equals(CHECKPOINT_REPOSITORY + ":" + checkpointTag)) {
+                    removeCheckpoint(client, repoTag);
+                }
+            }
+        }
+    }
+
+    private static void removeCheckpoint(DockerClient client, String repoTag) {
+        try {
+            client.removeImageCmd(repoTag).exec();
+        } catch (DockerException e) {
+            // a container of another build may still run the checkpoint, or another build removed it already
+            LOGGER.info("Kept outdated checkpoint {}: {}", repoTag, e.getMessage());
+        }
+    }
+
+    private static boolean imageExists(DockerClient client, String image) {
+        try {
+            client.inspectImageCmd(image).exec();
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+    public static Provider<PostgresServer> getProvider(Project project, ContainerProfile profile, Provider<Integer> maxParallelUsages) {
+        return project.getGradle().getSharedServices().registerIfAbsent("postgres", PostgresServer.class, spec -> {
+            spec.getParameters().getImage().set(profile.getImage());
+            spec.getParameters().getTmpfs().set(profile.getTmpfs());
+            spec.getParameters().getPoolSize().set(profile.getPoolSize());
+            spec.getParameters().getServerSettings().set(profile.getServerSettings());
+            spec.getMaxParallelUsages().set(maxParallelUsages);
+        });
     }
 
 }
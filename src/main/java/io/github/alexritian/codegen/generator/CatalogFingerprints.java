@@ -0,0 +1,161 @@
+package io.github.alexritian.codegen.generator;
+
+import org.jooq.meta.AttributeDefinition;
+import org.jooq.meta.CheckConstraintDefinition;
+import org.jooq.meta.ColumnDefinition;
+import org.jooq.meta.DataTypeDefinition;
+import org.jooq.meta.Database;
+import org.jooq.meta.Definition;
+import org.jooq.meta.DomainDefinition;
+import org.jooq.meta.EnumDefinition;
+import org.jooq.meta.ForeignKeyDefinition;
+import org.jooq.meta.IndexDefinition;
+import org.jooq.meta.ParameterDefinition;
+import org.jooq.meta.RoutineDefinition;
+import org.jooq.meta.SchemaDefinition;
+import org.jooq.meta.SequenceDefinition;
+import org.jooq.meta.TableDefinition;
+import org.jooq.meta.UDTDefinition;
+import org.jooq.meta.UniqueKeyDefinition;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Fingerprints of an introspected catalog: one per table, covering everything the classes generated for the table
+ * depend on, and one for the objects that are not generated per table.
+ *
+ * @author Too_young
+ */
+final class CatalogFingerprints {
+    /**
+     * The key of the fingerprint of the sequences, enums, domains, UDTs and routines.
+     */
+    static final String SCHEMA_OBJECTS = "@schemaObjects";
+
+    private CatalogFingerprints() {
+    }
+
+    /**
+     * @return the fingerprints by qualified table name, and by {@link #SCHEMA_OBJECTS}
+     */
+    static Map<String, String> of(Database database) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        StringBuilder schemaObjects = new StringBuilder();
+        for (SchemaDefinition schema : database.getSchemata()) {
+            for (TableDefinition table : database.getTables(schema)) {
+                fingerprints.put(table.getQualifiedName(), sha256(describe(table)));
+            }
+            schemaObjects.append("schema ").append(schema.getQualifiedName()).append('\n');
+            for (SequenceDefinition sequence : database.getSequences(schema)) {
+                schemaObjects.append("sequence ").append(sequence.getQualifiedName()).append(' ').append(describe(sequence.getType()))
+                        .append(' ').append(sequence.getStartWith()).append(' ').append(sequence.getIncrementBy())
+                        .append(' ').append(sequence.getMinvalue()).append(' ').append(sequence.getMaxvalue())
+                        .append(' ').append(sequence.getCycle()).append(' ').append(sequence.getCache()).append('\n');
+            }
+            for (DomainDefinition domain : database.getDomains(schema)) {
+                schemaObjects.append("domain ").append(domain.getQualifiedName()).append(' ').append(describe(domain.getBaseType()))
+                        .append(' ').append(domain.getCheckClauses()).append('\n');
+            }
+            for (UDTDefinition udt : database.getUDTs(schema)) {
+                schemaObjects.append("udt ").append(udt.getQualifiedName()).append('\n');
+                for (AttributeDefinition attribute : udt.getAttributes()) {
+                    schemaObjects.append("  attribute ").append(attribute.getName()).append(' ').append(attribute.getPosition())
+                            .append(' ').append(describe(attribute.getDefinedType())).append('\n');
+                }
+            }
+            for (RoutineDefinition routine : database.getRoutines(schema)) {
+                schemaObjects.append("routine ").append(routine.getQualifiedName()).append(' ').append(routine.getOverload())
+                        .append(' ').append(routine.isAggregate()).append('\n');
+                if (routine.getReturnValue() != null) {
+                    schemaObjects.append("  returns ").append(describe(routine.getReturnValue().getDefinedType())).append('\n');
+                }
+                for (ParameterDefinition parameter : routine.getAllParameters()) {
+                    schemaObjects.append("  parameter ").append(parameter.getName()).append(' ').append(parameter.getPosition())
+                            .append(' ').append(routine.getInParameters().contains(parameter)).append(' ')
+                            .append(routine.getOutParameters().contains(parameter)).append(' ').append(parameter.isDefaulted())
+                            .append(' ').append(describe(parameter.getDefinedType())).append('\n');
+                }
+            }
+            for (EnumDefinition enumDefinition : database.getEnums(schema)) {
+                schemaObjects.append("enum ").append(enumDefinition.getQualifiedName()).append(' ')
+                        .append(enumDefinition.getLiterals()).append('\n');
+            }
+        }
+        fingerprints.put(SCHEMA_OBJECTS, sha256(schemaObjects.toString()));
+        return fingerprints;
+    }
+
+    private static String describe(TableDefinition table) {
+        StringBuilder description = new StringBuilder();
+        description.append("table ").append(table.getQualifiedName()).append(' ').append(table.getTableOptions().type()).append(' ')
+                .append(table.getComment()).append('\n');
+        // the query of a view is part of its generated class
+        if (table.getSource() != null) {
+            description.append("source ").append(table.getSource()).append('\n');
+        }
+        for (ColumnDefinition column : table.getColumns()) {
+            description.append("column ").append(column.getName()).append(' ').append(column.getPosition()).append(' ')
+                    .append(describe(column.getDefinedType())).append(' ').append(column.getComment()).append('\n');
+        }
+        UniqueKeyDefinition primaryKey = table.getPrimaryKey();
+        if (primaryKey != null) {
+            description.append("primaryKey ").append(primaryKey.getName()).append(' ').append(names(primaryKey.getKeyColumns())).append('\n');
+        }
+        for (UniqueKeyDefinition uniqueKey : table.getUniqueKeys()) {
+            description.append("uniqueKey ").append(uniqueKey.getName()).append(' ').append(names(uniqueKey.getKeyColumns())).append('\n');
+        }
+        // the navigation paths of a table cover the foreign keys in both directions
+        for (ForeignKeyDefinition foreignKey : table.getForeignKeys()) {
+            description.append("foreignKey ").append(describe(foreignKey)).append('\n');
+        }
+        for (UniqueKeyDefinition key : table.getKeys()) {
+            for (ForeignKeyDefinition foreignKey : key.getForeignKeys()) {
+                description.append("referencedBy ").append(describe(foreignKey)).append('\n');
+            }
+        }
+        for (IndexDefinition index : table.getIndexes()) {
+            description.append("index ").append(index.getName()).append(' ').append(index.isUnique()).append(' ')
+                    .append(index.getIndexColumns().stream()
+                            .map(column -> column.getName() + " " + column.getSortOrder())
+                            .collect(Collectors.joining(","))).append('\n');
+        }
+        for (CheckConstraintDefinition check : table.getCheckConstraints()) {
+            description.append("check ").append(check.getName()).append(' ').append(check.getCheckClause()).append('\n');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Describes a type including its default and generation expressions, and the domain or user type it refers to.
+     */
+    private static String describe(DataTypeDefinition type) {
+        return type.getType() + " " + type.getLength() + " " + type.getPrecision() + " " + type.getScale()
+                + " " + type.isNullable() + " " + type.isDefaulted() + " " + type.getDefaultValue()
+                + " " + type.isIdentity() + " " + type.isComputed() + " " + type.getGeneratedAlwaysAs()
+                + " " + type.getGenerationOption() + " " + type.isReadonly() + " " + type.getQualifiedUserType();
+    }
+
+    private static String describe(ForeignKeyDefinition foreignKey) {
+        return foreignKey.getName() + " " + foreignKey.getTable().getQualifiedName() + names(foreignKey.getKeyColumns())
+                + " " + foreignKey.getReferencedTable().getQualifiedName() + names(foreignKey.getReferencedColumns());
+    }
+
+    private static String names(List<? extends Definition> definitions) {
+        return definitions.stream().map(Definition::getQualifiedName).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
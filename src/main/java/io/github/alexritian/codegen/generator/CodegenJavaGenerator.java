@@ -0,0 +1,1036 @@
+package io.github.alexritian.codegen.generator;
+
+import org.jooq.Name;
+import org.jooq.codegen.GeneratorStrategy.Mode;
+import org.jooq.codegen.JavaGenerator;
+import org.jooq.codegen.JavaWriter;
+import org.jooq.meta.ColumnDefinition;
+import org.jooq.meta.Database;
+import org.jooq.meta.EnumDefinition;
+import org.jooq.meta.SchemaDefinition;
+import org.jooq.meta.TableDefinition;
+import org.jooq.tools.JooqLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The jOOQ Java generator used by the plugin. When the database properties name an incremental state directory, only
+ * the classes of tables whose {@link CatalogFingerprints fingerprint} changed since the last run are generated. The
+ * classes spanning all tables, such as {@code Keys}, {@code Tables} and the schema, are always generated.
+ * <p>
+ * When the database properties name a shard, only the classes of the tables assigned to that shard are generated. The
+ * tables are assigned by their number of columns, so every shard generates about the same amount of code.
+ * <p>
+ * When {@value #RECORD_MAPPERS_PROPERTY} is set, a mapper between the record and the POJO of every table is generated,
+ * which the DAOs and the {@code RecordMappers} provider of the schema class use instead of jOOQ's reflective mapping.
+ * When {@value #PRE_RENDERED_SQL_PROPERTY} is set, the DAOs run {@code findById}, the {@code fetchByX} methods,
+ * {@code insert} and {@code update} as Postgres SQL rendered at generation time. When {@value #COPY_WRITERS_PROPERTY} is
+ * set, a writer streaming the records of every table through a binary {@code COPY} is generated. When
+ * {@value #INDEXED_FINDERS_PROPERTY} is set, the DAOs only keep the finders of the columns leading an index, and get
+ * finders for the composite index prefixes and keyset pagination by their unique keys; the finders left out are listed
+ * in the file named by {@value #FINDER_REPORT_PROPERTY}. When {@value #ASYNC_DAOS_PROPERTY} is set, every DAO gets an
+ * asynchronous variant with the same operations and finders.
+ * <p>
+ * The generator writes to the state directory, the first shard only:
+ * <ul>
+ *     <li>{@value #PENDING_FINGERPRINTS_FILE}: the fingerprints of this run, to be promoted once the output is in place</li>
+ *     <li>{@value #RETAINED_FILES_FILE}: the files of the skipped tables, relative to the target directory</li>
+ *     <li>{@value #PLAN_FILE}: how many tables were generated</li>
+ * </ul>
+ *
+ * @author Too_young
+ */
+public class CodegenJavaGenerator extends JavaGenerator {
+    public static final String STATE_DIR_PROPERTY = "codegen.incremental.stateDir";
+    public static final String FINGERPRINTS_FILE = "fingerprints.properties";
+    public static final String PENDING_FINGERPRINTS_FILE = "fingerprints.pending.properties";
+    public static final String RETAINED_FILES_FILE = "retained-files.txt";
+    public static final String PLAN_FILE = "plan.properties";
+    public static final String SHARD_INDEX_PROPERTY = "codegen.shard.index";
+    public static final String SHARD_COUNT_PROPERTY = "codegen.shard.count";
+    public static final String RECORD_MAPPERS_PROPERTY = "codegen.recordMappers";
+    public static final String PRE_RENDERED_SQL_PROPERTY = "codegen.preRenderedSql";
+    public static final String COPY_WRITERS_PROPERTY = "codegen.copyWriters";
+    public static final String INDEXED_FINDERS_PROPERTY = "codegen.indexedFinders";
+    public static final String FINDER_REPORT_PROPERTY = "codegen.finderReport";
+    public static final String ASYNC_DAOS_PROPERTY = "codegen.asyncDaos";
+
+    private static final JooqLogger log = JooqLogger.getLogger(CodegenJavaGenerator.class);
+    private static final Mode[] TABLE_MODES = {Mode.DEFAULT, Mode.RECORD, Mode.POJO, Mode.DAO, Mode.INTERFACE};
+    private static final String RECORD_MAPPER_SUFFIX = "Mapper";
+    private static final String COPY_WRITER_SUFFIX = "CopyWriter";
+    private static final String COPY_WRITER_BASE_CLASS = "BinaryCopyWriter";
+    private static final String ASYNC_DAO_SUFFIX = "AsyncDao";
+    private static final String ASYNC_DAO_BASE_CLASS = "AsyncDao";
+    // the base classes have a package of their own, where no class of a table can collide with them
+    private static final String SUPPORT_PACKAGE = "support";
+    // the encoder of every Postgres type by its names, with the Java types it accepts; the first one is converted to
+    private static final Map<String, CopyEncoder> COPY_ENCODERS = copyEncoders();
+
+    // qualified names of the tables to generate, null if all are generated
+    private Set<String> generatedTables;
+    // qualified names of the tables of this shard, null if the generation isn't sharded
+    private Set<String> shardTables;
+    private int shardIndex;
+    private boolean planned;
+
+    @Override
+    protected void generateTable(SchemaDefinition schema, TableDefinition table) {
+        if (generates(table)) {
+            super.generateTable(schema, table);
+        }
+    }
+
+    @Override
+    protected void generateRecord(TableDefinition table) {
+        if (generates(table)) {
+            super.generateRecord(table);
+            if (generatesCopyWriter(table)) {
+                generateCopyWriter(table);
+            } else if (copyWriters(table)) {
+                log.info("Skipping copy writer", table.getQualifiedName() + ": no binary encoder for " + unsupportedCopyColumns(table).stream()
+                        .map(column -> column.getName() + " " + column.getType().getType())
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+    }
+
+    @Override
+    protected void generatePojo(TableDefinition table) {
+        if (generates(table)) {
+            super.generatePojo(table);
+            if (generatesRecordMapper(table)) {
+                generateRecordMapper(table);
+            }
+        }
+    }
+
+    @Override
+    protected void generateDaoClassFooter(TableDefinition view, JavaWriter out) {
+        super.generateDaoClassFooter(view, out);
+        TableDefinition table = IndexedFinders.table(view);
+        if (generatesRecordMapper(table)) {
+            out.println();
+            out.println("/**");
+            out.println(" * Maps the records of this DAO without reflection.");
+            out.println(" */");
+            out.println("@Override");
+            out.println("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+            out.println("public org.jooq.RecordMapper<" + getStrategy().getFullJavaClassName(table, Mode.RECORD) + ", "
+                    + getStrategy().getFullJavaClassName(table, Mode.POJO) + "> mapper() {");
+            out.println("return (org.jooq.RecordMapper) " + recordMapperClassName(table) + ".INSTANCE;");
+            out.println("}");
+        }
+        if (generatesPreRenderedSql(table)) {
+            generatePreRenderedSql(table, out);
+        }
+        if (generatesIndexedFinders(table)) {
+            generateIndexedFinders(table, out);
+        }
+    }
+
+    /**
+     * @return whether the DAO of the given table only has the finders its indexes serve
+     */
+    protected boolean generatesIndexedFinders(TableDefinition table) {
+        return Boolean.parseBoolean(table.getDatabase().getProperties().getProperty(INDEXED_FINDERS_PROPERTY))
+                && generateDaos() && table.getPrimaryKey() != null;
+    }
+
+    private void generateIndexedFinders(TableDefinition table, JavaWriter out) {
+        String tableIdentifier = getStrategy().getFullJavaIdentifier(table);
+        String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        for (List<ColumnDefinition> prefix : IndexedFinders.compositePrefixes(table)) {
+            out.println();
+            out.println("/**");
+            out.println(" * Fetch records that have <code>" + prefix.stream().map(column -> column.getOutputName() + " = ?")
+                    .collect(Collectors.joining(" AND ")) + "</code>, served by an index");
+            out.println(" */");
+            out.println("public java.util.List<" + pojoType + "> fetchBy" + methodSuffix(prefix) + "(" + parameters(prefix, out) + ") {");
+            out.println("return configuration().dsl().selectFrom(" + tableIdentifier + ")");
+            out.println(".where(" + prefix.stream()
+                    .map(column -> getStrategy().getFullJavaIdentifier(column) + ".eq(" + getStrategy().getJavaMemberName(column, Mode.POJO) + ")")
+                    .collect(Collectors.joining(", ")) + ")");
+            out.println(".fetch(mapper());");
+            out.println("}");
+        }
+        for (List<ColumnDefinition> key : IndexedFinders.uniqueKeys(table)) {
+            // the seek clause of jOOQ takes up to 22 values
+            if (key.size() > 22) {
+                continue;
+            }
+            String first = getStrategy().getJavaMemberName(key.get(0), Mode.POJO);
+            out.println();
+            out.println("/**");
+            out.println(" * Fetch at most <code>numberOfRows</code> records ordered by <code>" + key.stream().map(ColumnDefinition::getOutputName)
+                    .collect(Collectors.joining(", ")) + "</code>, following the given");
+            out.println(" * key. A <code>null</code> " + first + " fetches the first page.");
+            out.println(" */");
+            out.println("public java.util.List<" + pojoType + "> fetchPageAfter" + methodSuffix(key) + "(" + parameters(key, out) + ", int numberOfRows) {");
+            out.println("var ordered = configuration().dsl().selectFrom(" + tableIdentifier + ").orderBy(" + key.stream()
+                    .map(getStrategy()::getFullJavaIdentifier).collect(Collectors.joining(", ")) + ");");
+            out.println("if (" + first + " == null) {");
+            out.println("return ordered.limit(numberOfRows).fetch(mapper());");
+            out.println("}");
+            out.println("return ordered.seek(" + key.stream().map(column -> getStrategy().getJavaMemberName(column, Mode.POJO))
+                    .collect(Collectors.joining(", ")) + ").limit(numberOfRows).fetch(mapper());");
+            out.println("}");
+        }
+    }
+
+    /**
+     * @return whether an asynchronous variant of the DAO of the given table is generated
+     */
+    protected boolean generatesAsyncDao(TableDefinition table) {
+        return Boolean.parseBoolean(table.getDatabase().getProperties().getProperty(ASYNC_DAOS_PROPERTY))
+                && generateDaos() && table.getPrimaryKey() != null;
+    }
+
+    private void generateAsyncDao(TableDefinition table) {
+        String recordType = getStrategy().getFullJavaClassName(table, Mode.RECORD);
+        String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        String daoType = getStrategy().getFullJavaClassName(table, Mode.DAO);
+        String className = getStrategy().getJavaClassName(table, Mode.DEFAULT) + ASYNC_DAO_SUFFIX;
+        boolean indexed = generatesIndexedFinders(table);
+
+        JavaWriter out = newJavaWriter(asyncDaoFile(table, className));
+        log.info("Generating async DAO", out.file().getName());
+        String keyType = keyType(table.getPrimaryKey().getKeyColumns(), out);
+        out.println("package " + getStrategy().getJavaPackageName(table, Mode.DAO) + ";");
+        out.println();
+        out.println();
+        out.println("/**");
+        out.println(" * Runs the operations of {@link " + daoType + "} asynchronously. They run on other threads, outside a transaction");
+        out.println(" * bound to the calling thread, and are rejected while a Spring transaction is active. Use {@link #withConfiguration}");
+        out.println(" * to run them in a jOOQ transaction.");
+        out.println(" */");
+        if (generateSpringAnnotations()) {
+            out.println("@org.springframework.stereotype.Repository");
+        }
+        out.println("public class " + className + " extends " + supportClassName(table, ASYNC_DAO_BASE_CLASS) + "<" + recordType + ", " + pojoType + ", "
+                + (keyType != null ? keyType : "org.jooq.Record") + "> {");
+        out.println();
+        out.println("private final " + daoType + " dao;");
+        out.println();
+        out.println("public " + className + "(" + daoType + " dao, java.util.concurrent.Executor executor) {");
+        out.println("super(dao, executor);");
+        out.println("this.dao = dao;");
+        out.println("}");
+        out.println();
+        if (generateSpringAnnotations()) {
+            out.println("@org.springframework.beans.factory.annotation.Autowired");
+        }
+        out.println("public " + className + "(" + daoType + " dao) {");
+        out.println("super(dao);");
+        out.println("this.dao = dao;");
+        out.println("}");
+        out.println();
+        out.println("/**");
+        out.println(" * @return the blocking DAO the operations run on");
+        out.println(" */");
+        out.println("public " + daoType + " dao() {");
+        out.println("return dao;");
+        out.println("}");
+        out.println();
+        out.println("/**");
+        out.println(" * @return a variant running the operations on the executor of this one, and on the given configuration, e.g. the");
+        out.println(" * configuration of a jOOQ transaction, whose connection isn't bound to a thread");
+        out.println(" */");
+        out.println("public " + className + " withConfiguration(org.jooq.Configuration configuration) {");
+        out.println("return new " + className + "(new " + daoType + "(configuration), executor());");
+        out.println("}");
+
+        // the same finders as the DAO
+        List<ColumnDefinition> finderColumns = new ArrayList<>(table.getColumns());
+        if (indexed) {
+            finderColumns.removeAll(IndexedFinders.unindexedColumns(table));
+        }
+        for (ColumnDefinition column : finderColumns) {
+            String type = getJavaType(column.getType(), out, Mode.POJO);
+            String suffix = getStrategy().getJavaClassName(column);
+            String field = getStrategy().getFullJavaIdentifier(column);
+            out.println();
+            out.println("public java.util.concurrent.CompletionStage<java.util.List<" + pojoType + ">> fetchRangeOf" + suffix + "(" + type
+                    + " lowerInclusive, " + type + " upperInclusive) {");
+            out.println("return fetchRange(" + field + ", lowerInclusive, upperInclusive);");
+            out.println("}");
+            out.println();
+            out.println("public java.util.concurrent.CompletionStage<java.util.List<" + pojoType + ">> fetchBy" + suffix + "(" + type + "... values) {");
+            out.println("return fetch(" + field + ", values);");
+            out.println("}");
+        }
+        if (indexed) {
+            for (List<ColumnDefinition> prefix : IndexedFinders.compositePrefixes(table)) {
+                String arguments = prefix.stream().map(column -> getStrategy().getJavaMemberName(column, Mode.POJO)).collect(Collectors.joining(", "));
+                out.println();
+                out.println("public java.util.concurrent.CompletionStage<java.util.List<" + pojoType + ">> fetchBy" + methodSuffix(prefix) + "("
+                        + parameters(prefix, out) + ") {");
+                out.println("return supply(() -> dao.fetchBy" + methodSuffix(prefix) + "(" + arguments + "));");
+                out.println("}");
+            }
+            for (List<ColumnDefinition> key : IndexedFinders.uniqueKeys(table)) {
+                if (key.size() > 22) {
+                    continue;
+                }
+                String arguments = key.stream().map(column -> getStrategy().getJavaMemberName(column, Mode.POJO)).collect(Collectors.joining(", "));
+                out.println();
+                out.println("public java.util.concurrent.CompletionStage<java.util.List<" + pojoType + ">> fetchPageAfter" + methodSuffix(key) + "("
+                        + parameters(key, out) + ", int numberOfRows) {");
+                out.println("return supply(() -> dao.fetchPageAfter" + methodSuffix(key) + "(" + arguments + ", numberOfRows));");
+                out.println("}");
+            }
+        }
+        out.println("}");
+        closeJavaWriter(out);
+    }
+
+    private File asyncDaoFile(TableDefinition table, String className) {
+        return new File(getTargetDirectory(), (getStrategy().getJavaPackageName(table, Mode.DAO) + "." + className).replace('.', File.separatorChar) + ".java");
+    }
+
+    private String methodSuffix(List<ColumnDefinition> columns) {
+        return columns.stream().map(getStrategy()::getJavaClassName).collect(Collectors.joining("And"));
+    }
+
+    private String parameters(List<ColumnDefinition> columns, JavaWriter out) {
+        return columns.stream()
+                .map(column -> getJavaType(column.getType(), out, Mode.POJO) + " " + getStrategy().getJavaMemberName(column, Mode.POJO))
+                .collect(Collectors.joining(", "));
+    }
+
+    private void reportUnindexedFinders(SchemaDefinition schema) {
+        String report = schema.getDatabase().getProperties().getProperty(FINDER_REPORT_PROPERTY);
+        if (report == null || shardIndex > 0) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (TableDefinition table : schema.getDatabase().getTables(schema)) {
+            if (generatesIndexedFinders(table)) {
+                IndexedFinders.unindexedColumns(table).forEach(column -> lines.add(column.getQualifiedName()));
+            }
+        }
+        try {
+            Files.write(new File(report).toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether a binary copy writer is generated for the given table, which requires every copied column to
+     * have a Postgres type with a binary encoder
+     */
+    protected boolean generatesCopyWriter(TableDefinition table) {
+        return copyWriters(table) && unsupportedCopyColumns(table).isEmpty();
+    }
+
+    private boolean copyWriters(TableDefinition table) {
+        return Boolean.parseBoolean(table.getDatabase().getProperties().getProperty(COPY_WRITERS_PROPERTY)) && generateRecords();
+    }
+
+    private List<ColumnDefinition> unsupportedCopyColumns(TableDefinition table) {
+        return copiedColumns(table).stream().filter(column -> copyEncoder(column) == null).toList();
+    }
+
+    // identity columns are left to their defaults, computed columns to the database
+    private static List<ColumnDefinition> copiedColumns(TableDefinition table) {
+        return table.getColumns().stream().filter(column -> !column.isIdentity() && isWritable(column)).toList();
+    }
+
+    private CopyEncoder copyEncoder(ColumnDefinition column) {
+        // the binary format of an enum is its label
+        Name userType = column.getType().getQualifiedUserType();
+        EnumDefinition enumDefinition = userType == null ? null : column.getDatabase().getEnum(column.getType().getSchema(), userType);
+        if (enumDefinition != null) {
+            return new CopyEncoder("writeEnum", List.of(getStrategy().getFullJavaClassName(enumDefinition)));
+        }
+        String type = column.getType().getType().toLowerCase(Locale.ROOT).replaceFirst("^pg_catalog\\.", "").replaceFirst("\\(.*\\)$", "").strip();
+        return COPY_ENCODERS.get(type);
+    }
+
+    private void generateCopyWriter(TableDefinition table) {
+        String recordType = getStrategy().getFullJavaClassName(table, Mode.RECORD);
+        String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        String className = getStrategy().getJavaClassName(table, Mode.DEFAULT) + COPY_WRITER_SUFFIX;
+        List<ColumnDefinition> columns = copiedColumns(table);
+        String tableName = quotedName(table);
+        String sql = "copy " + tableName + " (" + columns.stream().map(column -> quote(column.getOutputName())).collect(Collectors.joining(", "))
+                + ") from stdin (format binary)";
+
+        JavaWriter out = newJavaWriter(copyWriterFile(table, className));
+        log.info("Generating copy writer", out.file().getName());
+        out.println("package " + copyWriterPackageName(table) + ";");
+        out.println();
+        out.println();
+        out.println("/**");
+        out.println(" * Streams rows into {@code " + tableName.replace("\"", "") + "} through a binary {@code COPY}. Identity and computed");
+        out.println(" * columns are left to the database.");
+        out.println(" */");
+        out.println("public class " + className + " extends " + supportClassName(table, COPY_WRITER_BASE_CLASS) + " {");
+        out.println();
+        out.println("public static final String SQL = " + javaString(sql) + ";");
+
+        // the value of a column whose Java type has no encoder is converted to the database type once per row
+        String[] recordValues = new String[columns.size()];
+        String[] pojoValues = new String[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnDefinition column = columns.get(i);
+            CopyEncoder encoder = copyEncoder(column);
+            recordValues[i] = "record." + getStrategy().getJavaGetterName(column, Mode.RECORD) + "()";
+            pojoValues[i] = "pojo." + getStrategy().getJavaGetterName(column, Mode.POJO) + "()";
+            if (!encoder.javaTypes().contains(getJavaType(column.getType(), out, Mode.RECORD))) {
+                String converter = "CONVERTER_" + i;
+                out.println("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+                out.println("private static final org.jooq.Converter<Object, Object> " + converter + " = (org.jooq.Converter) "
+                        + getStrategy().getFullJavaIdentifier(column) + ".getConverter();");
+                recordValues[i] = "(" + encoder.javaTypes().get(0) + ") " + converter + ".to(" + recordValues[i] + ")";
+                pojoValues[i] = "(" + encoder.javaTypes().get(0) + ") " + converter + ".to(" + pojoValues[i] + ")";
+            }
+        }
+
+        out.println();
+        out.println("public " + className + "(java.sql.Connection connection) throws java.sql.SQLException {");
+        out.println("super(connection, SQL);");
+        out.println("}");
+        out.println();
+        out.println("public void write(" + recordType + " record) throws java.sql.SQLException {");
+        out.println("startRow(" + columns.size() + ");");
+        for (int i = 0; i < columns.size(); i++) {
+            out.println(copyEncoder(columns.get(i)).method() + "(" + recordValues[i] + ");");
+        }
+        out.println("}");
+        if (generatePojos() && !generatePojosAsJavaRecordClasses()) {
+            out.println();
+            out.println("public void write(" + pojoType + " pojo) throws java.sql.SQLException {");
+            out.println("startRow(" + columns.size() + ");");
+            for (int i = 0; i < columns.size(); i++) {
+                out.println(copyEncoder(columns.get(i)).method() + "(" + pojoValues[i] + ");");
+            }
+            out.println("}");
+        }
+        out.println("}");
+        closeJavaWriter(out);
+    }
+
+    private void generateSupportClass(TableDefinition table, String className) {
+        String packageName = supportPackageName(table);
+        generateFromTemplate(className, packageName,
+                new File(getTargetDirectory(), (packageName + "." + className).replace('.', File.separatorChar) + ".java"));
+    }
+
+    private String supportPackageName(TableDefinition table) {
+        return getStrategy().getJavaPackageName(table.getSchema()) + "." + SUPPORT_PACKAGE;
+    }
+
+    private String supportClassName(TableDefinition table, String className) {
+        return supportPackageName(table) + "." + className;
+    }
+
+    /**
+     * Generates a class that doesn't depend on the schema from the template resource of the same name.
+     */
+    private void generateFromTemplate(String className, String packageName, File file) {
+        String template;
+        try (var in = CodegenJavaGenerator.class.getResourceAsStream(className + ".java.template")) {
+            template = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        JavaWriter out = newJavaWriter(file);
+        log.info("Generating " + className, out.file().getName());
+        for (String line : template.replace("${package}", packageName).split("\\R")) {
+            // the writer indents the lines itself
+            String stripped = line.strip();
+            out.println(stripped.startsWith("*") ? " " + stripped : stripped);
+        }
+        closeJavaWriter(out);
+    }
+
+    private String copyWriterPackageName(TableDefinition table) {
+        return getStrategy().getJavaPackageName(table, Mode.DEFAULT) + ".writers";
+    }
+
+    private File copyWriterFile(TableDefinition table, String className) {
+        return new File(getTargetDirectory(), (copyWriterPackageName(table) + "." + className).replace('.', File.separatorChar) + ".java");
+    }
+
+    private static Map<String, CopyEncoder> copyEncoders() {
+        Map<String, CopyEncoder> encoders = new HashMap<>();
+        copyEncoder(encoders, new CopyEncoder("writeShort", List.of("java.lang.Short")), "int2", "smallint", "smallserial");
+        copyEncoder(encoders, new CopyEncoder("writeInt", List.of("java.lang.Integer")), "int4", "int", "integer", "serial");
+        copyEncoder(encoders, new CopyEncoder("writeLong", List.of("java.lang.Long")), "int8", "bigint", "bigserial");
+        copyEncoder(encoders, new CopyEncoder("writeFloat", List.of("java.lang.Float")), "float4", "real");
+        copyEncoder(encoders, new CopyEncoder("writeDouble", List.of("java.lang.Double")), "float8", "float", "double precision");
+        copyEncoder(encoders, new CopyEncoder("writeBoolean", List.of("java.lang.Boolean")), "bool", "boolean");
+        copyEncoder(encoders, new CopyEncoder("writeText", List.of("java.lang.String")),
+                "text", "varchar", "character varying", "char", "character", "bpchar", "name", "citext");
+        copyEncoder(encoders, new CopyEncoder("writeBytes", List.of("byte[]")), "bytea");
+        copyEncoder(encoders, new CopyEncoder("writeUuid", List.of("java.util.UUID")), "uuid");
+        copyEncoder(encoders, new CopyEncoder("writeNumeric", List.of("java.math.BigDecimal", "java.math.BigInteger",
+                "java.lang.Long", "java.lang.Integer", "java.lang.Short", "java.lang.Byte")), "numeric", "decimal");
+        copyEncoder(encoders, new CopyEncoder("writeDate", List.of("java.time.LocalDate", "java.sql.Date")), "date");
+        copyEncoder(encoders, new CopyEncoder("writeTime", List.of("java.time.LocalTime", "java.sql.Time")),
+                "time", "time without time zone");
+        copyEncoder(encoders, new CopyEncoder("writeTimestamp", List.of("java.time.LocalDateTime", "java.sql.Timestamp")),
+                "timestamp", "timestamp without time zone");
+        copyEncoder(encoders, new CopyEncoder("writeTimestamptz", List.of("java.time.OffsetDateTime", "java.time.Instant")),
+                "timestamptz", "timestamp with time zone");
+        copyEncoder(encoders, new CopyEncoder("writeJsonb", List.of("org.jooq.JSONB")), "jsonb");
+        copyEncoder(encoders, new CopyEncoder("writeJson", List.of("org.jooq.JSON")), "json");
+        return Map.copyOf(encoders);
+    }
+
+    private static void copyEncoder(Map<String, CopyEncoder> encoders, CopyEncoder encoder, String... types) {
+        for (String type : types) {
+            encoders.put(type, encoder);
+        }
+    }
+
+    /**
+     * A method of the generated {@code BinaryCopyWriter} and the Java types it has an overload for.
+     */
+    private record CopyEncoder(String method, List<String> javaTypes) {
+    }
+
+    /**
+     * @return whether the DAO of the given table runs its basic operations as pre-rendered SQL
+     */
+    protected boolean generatesPreRenderedSql(TableDefinition table) {
+        return Boolean.parseBoolean(table.getDatabase().getProperties().getProperty(PRE_RENDERED_SQL_PROPERTY))
+                && generatesMutablePojos() && table.getPrimaryKey() != null;
+    }
+
+    /**
+     * Renders the queries of the DAO once, with their bind values in the order of {@code COLUMNS}, and overrides the
+     * DAO methods to run them as plain SQL. Other dialects, render mappings, unqualified rendering and record listeners
+     * fall back to the DAO of jOOQ. Computed columns are read, but never written.
+     */
+    private void generatePreRenderedSql(TableDefinition table, JavaWriter out) {
+        String tableIdentifier = getStrategy().getFullJavaIdentifier(table);
+        String recordType = getStrategy().getFullJavaClassName(table, Mode.RECORD);
+        String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        List<ColumnDefinition> columns = table.getColumns();
+        List<ColumnDefinition> keyColumns = table.getPrimaryKey().getKeyColumns();
+        String tableName = quotedName(table);
+        String columnList = columns.stream().map(column -> quote(column.getOutputName())).collect(Collectors.joining(", "));
+        String keyCondition = keyColumns.stream().map(column -> quote(column.getOutputName()) + " = ?").collect(Collectors.joining(" and "));
+        // the version and timestamp of a record are maintained by the updatable record of jOOQ
+        boolean writes = columns.stream().noneMatch(this::isRecordVersionOrTimestamp);
+
+        out.println();
+        out.println("private static final String SELECT_SQL = " + javaString("select " + columnList + " from " + tableName) + ";");
+        out.println("private static final String FIND_BY_ID_SQL = SELECT_SQL + " + javaString(" where " + keyCondition) + ";");
+        out.println("private static final java.util.Map<org.jooq.Field<?>, String> FETCH_SQL = new java.util.IdentityHashMap<>();");
+        out.println("private static final org.jooq.Field<?>[] COLUMNS = { "
+                + columns.stream().map(getStrategy()::getFullJavaIdentifier).collect(Collectors.joining(", ")) + " };");
+        if (writes) {
+            out.println("private static final String[] COLUMN_NAMES = { "
+                    + columns.stream().map(column -> javaString(quote(column.getOutputName()))).collect(Collectors.joining(", ")) + " };");
+            out.println("private static final boolean[] NULLABLE = { "
+                    + columns.stream().map(column -> String.valueOf(column.getType().isNullable())).collect(Collectors.joining(", ")) + " };");
+            // computed columns are maintained by the database, which rejects values for them
+            out.println("private static final boolean[] WRITABLE = { "
+                    + columns.stream().map(column -> String.valueOf(isWritable(column))).collect(Collectors.joining(", ")) + " };");
+            out.println("private static final int[] KEY_COLUMNS = { "
+                    + keyColumns.stream().map(column -> String.valueOf(columns.indexOf(column))).collect(Collectors.joining(", ")) + " };");
+            out.println("private static final String INSERT_SQL = " + javaString("insert into " + tableName + " (") + ";");
+            out.println("private static final String INSERT_DEFAULT_SQL = " + javaString("insert into " + tableName + " default values returning " + columnList) + ";");
+            out.println("private static final String RETURNING_SQL = " + javaString(") returning " + columnList) + ";");
+            out.println("private static final String UPDATE_SQL = " + javaString("update " + tableName + " set ") + ";");
+            out.println("private static final String UPDATE_WHERE_SQL = " + javaString(" where " + keyCondition) + ";");
+        }
+        out.println();
+        out.println("static {");
+        for (ColumnDefinition column : columns) {
+            out.println("FETCH_SQL.put(" + getStrategy().getFullJavaIdentifier(column) + ", SELECT_SQL + "
+                    + javaString(" where " + quote(column.getOutputName())) + ");");
+        }
+        out.println("}");
+
+        out.println();
+        out.println("private boolean preRendered() {");
+        out.println("org.jooq.Configuration configuration = configuration();");
+        // the SQL is rendered qualified and bypasses the events of the updatable records
+        out.println("return configuration != null && configuration.dialect().family() == org.jooq.SQLDialect.POSTGRES");
+        out.println("&& configuration.settings().getRenderMapping() == null && !Boolean.FALSE.equals(configuration.settings().isRenderSchema())");
+        out.println("&& configuration.recordListenerProviders().length == 0;");
+        out.println("}");
+
+        String keyType = keyType(keyColumns, out);
+        if (keyType != null) {
+            out.println();
+            out.println("@Override");
+            out.println("public " + pojoType + " findById(" + keyType + " id) {");
+            out.println("if (id == null || !preRendered()) {");
+            out.println("return super.findById(id);");
+            out.println("}");
+            if (keyColumns.size() == 1) {
+                out.println("return configuration().dsl().resultQuery(FIND_BY_ID_SQL, org.jooq.impl.DSL.val(id, "
+                        + getStrategy().getFullJavaIdentifier(keyColumns.get(0)) + ")).coerce(" + tableIdentifier + ").fetchOne(mapper());");
+            } else {
+                List<String> binds = new ArrayList<>();
+                for (int i = 0; i < keyColumns.size(); i++) {
+                    binds.add("org.jooq.impl.DSL.val(id.get(" + i + "), " + getStrategy().getFullJavaIdentifier(keyColumns.get(i)) + ")");
+                }
+                out.println("return configuration().dsl().resultQuery(FIND_BY_ID_SQL, " + String.join(", ", binds) + ").coerce("
+                        + tableIdentifier + ").fetchOne(mapper());");
+            }
+            out.println("}");
+        }
+
+        out.println();
+        out.println("@Override");
+        out.println("@SuppressWarnings(\"unchecked\")");
+        out.println("public <Z> java.util.List<" + pojoType + "> fetch(org.jooq.Field<Z> field, Z... values) {");
+        out.println("String sql = FETCH_SQL.get(field);");
+        out.println("if (sql == null || values == null || !preRendered()) {");
+        out.println("return super.fetch(field, values);");
+        out.println("}");
+        out.println("if (values.length == 0) {");
+        out.println("return new java.util.ArrayList<>();");
+        out.println("}");
+        out.println("StringBuilder builder = new StringBuilder(sql).append(\" in (\");");
+        out.println("org.jooq.QueryPart[] binds = new org.jooq.QueryPart[values.length];");
+        out.println("for (int i = 0; i < values.length; i++) {");
+        out.println("builder.append(i == 0 ? \"?\" : \", ?\");");
+        out.println("binds[i] = org.jooq.impl.DSL.val(values[i], field);");
+        out.println("}");
+        out.println("return configuration().dsl().resultQuery(builder.append(')').toString(), binds).coerce(" + tableIdentifier + ").fetch(mapper());");
+        out.println("}");
+
+        if (!writes) {
+            return;
+        }
+        out.println();
+        out.println("@Override");
+        out.println("public void insert(" + pojoType + " object) {");
+        out.println("if (object == null || !preRendered()) {");
+        out.println("super.insert(object);");
+        out.println("return;");
+        out.println("}");
+        out.println("Object[] values = values(object);");
+        out.println("StringBuilder columns = new StringBuilder(INSERT_SQL);");
+        out.println("StringBuilder placeholders = new StringBuilder(\") values (\");");
+        out.println("java.util.List<org.jooq.QueryPart> binds = new java.util.ArrayList<>(COLUMNS.length);");
+        out.println("for (int i = 0; i < COLUMNS.length; i++) {");
+        // like the DAO of jOOQ, a missing value of a non-nullable column leaves it to the column default
+        out.println("if (!WRITABLE[i] || values[i] == null && !NULLABLE[i]) {");
+        out.println("continue;");
+        out.println("}");
+        out.println("if (!binds.isEmpty()) {");
+        out.println("columns.append(\", \");");
+        out.println("placeholders.append(\", \");");
+        out.println("}");
+        out.println("columns.append(COLUMN_NAMES[i]);");
+        out.println("placeholders.append('?');");
+        out.println("binds.add(org.jooq.impl.DSL.val(values[i], COLUMNS[i]));");
+        out.println("}");
+        out.println("String sql = binds.isEmpty() ? INSERT_DEFAULT_SQL : columns.append(placeholders).append(RETURNING_SQL).toString();");
+        out.println(recordType + " record = configuration().dsl().resultQuery(sql, binds.toArray(new org.jooq.QueryPart[0])).coerce("
+                + tableIdentifier + ").fetchOne();");
+        out.println("if (record != null && !Boolean.FALSE.equals(configuration().settings().isReturnRecordToPojo())) {");
+        for (ColumnDefinition column : columns) {
+            out.println("object." + getStrategy().getJavaSetterName(column, Mode.POJO) + "(record." + getStrategy().getJavaGetterName(column, Mode.RECORD) + "());");
+        }
+        out.println("}");
+        out.println("}");
+
+        out.println();
+        out.println("@Override");
+        out.println("public void update(" + pojoType + " object) {");
+        out.println("if (object == null || !preRendered()) {");
+        out.println("super.update(object);");
+        out.println("return;");
+        out.println("}");
+        out.println("Object[] values = values(object);");
+        out.println("StringBuilder sql = new StringBuilder(UPDATE_SQL);");
+        out.println("java.util.List<org.jooq.QueryPart> binds = new java.util.ArrayList<>(COLUMNS.length);");
+        out.println("java.util.Set<Integer> keys = new java.util.HashSet<>();");
+        out.println("for (int key : KEY_COLUMNS) {");
+        out.println("keys.add(key);");
+        out.println("}");
+        out.println("for (int i = 0; i < COLUMNS.length; i++) {");
+        out.println("if (keys.contains(i) || !WRITABLE[i] || values[i] == null && !NULLABLE[i]) {");
+        out.println("continue;");
+        out.println("}");
+        out.println("sql.append(binds.isEmpty() ? \"\" : \", \").append(COLUMN_NAMES[i]).append(\" = ?\");");
+        out.println("binds.add(org.jooq.impl.DSL.val(values[i], COLUMNS[i]));");
+        out.println("}");
+        out.println("if (binds.isEmpty()) {");
+        out.println("return;");
+        out.println("}");
+        out.println("for (int key : KEY_COLUMNS) {");
+        out.println("binds.add(org.jooq.impl.DSL.val(values[key], COLUMNS[key]));");
+        out.println("}");
+        out.println("configuration().dsl().execute(sql.append(UPDATE_WHERE_SQL).toString(), binds.toArray(new org.jooq.QueryPart[0]));");
+        out.println("}");
+
+        out.println();
+        out.println("private static Object[] values(" + pojoType + " object) {");
+        out.println("return new Object[] { " + columns.stream()
+                .map(column -> "object." + getStrategy().getJavaGetterName(column, Mode.POJO) + "()")
+                .collect(Collectors.joining(", ")) + " };");
+        out.println("}");
+    }
+
+    /**
+     * @return the type of the primary key of a DAO, {@code null} if it is a plain {@link org.jooq.Record}
+     */
+    private String keyType(List<ColumnDefinition> keyColumns, JavaWriter out) {
+        if (keyColumns.size() == 1) {
+            return getJavaType(keyColumns.get(0).getType(), out, Mode.POJO);
+        }
+        if (keyColumns.size() > 22) {
+            return null;
+        }
+        return "org.jooq.Record" + keyColumns.size() + "<" + keyColumns.stream()
+                .map(column -> getJavaType(column.getType(), out, Mode.POJO))
+                .collect(Collectors.joining(", ")) + ">";
+    }
+
+    /**
+     * @return whether the database accepts values for the given column, which computed and readonly columns don't
+     */
+    static boolean isWritable(ColumnDefinition column) {
+        return !column.getType().isComputed() && !column.getType().isReadonly();
+    }
+
+    private boolean isRecordVersionOrTimestamp(ColumnDefinition column) {
+        Database database = column.getDatabase();
+        return Stream.of(database.getRecordVersionFields(), database.getRecordTimestampFields())
+                .filter(patterns -> patterns != null)
+                .flatMap(Arrays::stream)
+                .anyMatch(pattern -> column.getName().matches(pattern) || column.getQualifiedName().matches(pattern));
+    }
+
+    private static String quotedName(TableDefinition table) {
+        return table.getSchema().getOutputName().isEmpty()
+                ? quote(table.getOutputName())
+                : quote(table.getSchema().getOutputName()) + "." + quote(table.getOutputName());
+    }
+
+    private static String quote(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String javaString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    @Override
+    protected void generateSchemaClassFooter(SchemaDefinition schema, JavaWriter out) {
+        super.generateSchemaClassFooter(schema, out);
+        schema.getDatabase().getTables(schema).stream().filter(this::generatesCopyWriter).findFirst()
+                .ifPresent(table -> generateSupportClass(table, COPY_WRITER_BASE_CLASS));
+        schema.getDatabase().getTables(schema).stream().filter(this::generatesAsyncDao).findFirst()
+                .ifPresent(table -> generateSupportClass(table, ASYNC_DAO_BASE_CLASS));
+        planOnce(schema.getDatabase());
+        reportUnindexedFinders(schema);
+        List<TableDefinition> tables = schema.getDatabase().getTables(schema).stream().filter(this::generatesRecordMapper).toList();
+        if (tables.isEmpty()) {
+            return;
+        }
+        out.println();
+        out.println("/**");
+        out.println(" * Provides the generated mappers of the POJOs of this schema, and jOOQ's reflective mappers for other types.");
+        out.println(" * Register it as the {@link org.jooq.RecordMapperProvider} and {@link org.jooq.RecordUnmapperProvider} of a");
+        out.println(" * {@link org.jooq.Configuration}.");
+        out.println(" */");
+        out.println("public static final class RecordMappers implements org.jooq.RecordMapperProvider, org.jooq.RecordUnmapperProvider {");
+        out.println();
+        out.println("private static final java.util.Map<Class<?>, Object> MAPPERS = new java.util.IdentityHashMap<>();");
+        out.println();
+        out.println("static {");
+        for (TableDefinition table : tables) {
+            out.println("MAPPERS.put(" + getStrategy().getFullJavaClassName(table, Mode.POJO) + ".class, " + recordMapperClassName(table) + ".INSTANCE);");
+        }
+        out.println("}");
+        out.println();
+        out.println("private final org.jooq.RecordMapperProvider mappers;");
+        out.println("private final org.jooq.RecordUnmapperProvider unmappers;");
+        out.println();
+        out.println("public RecordMappers() {");
+        out.println("this(new org.jooq.impl.DefaultConfiguration());");
+        out.println("}");
+        out.println();
+        out.println("public RecordMappers(org.jooq.Configuration configuration) {");
+        // the constructors taking the configuration are protected
+        out.println("this.mappers = new org.jooq.impl.DefaultRecordMapperProvider(configuration) {};");
+        out.println("this.unmappers = new org.jooq.impl.DefaultRecordUnmapperProvider(configuration) {};");
+        out.println("}");
+        out.println();
+        out.println("@Override");
+        out.println("@SuppressWarnings(\"unchecked\")");
+        out.println("public <R extends org.jooq.Record, E> org.jooq.RecordMapper<R, E> provide(org.jooq.RecordType<R> recordType, Class<? extends E> type) {");
+        out.println("Object mapper = MAPPERS.get(type);");
+        out.println("return mapper != null ? (org.jooq.RecordMapper<R, E>) mapper : mappers.provide(recordType, type);");
+        out.println("}");
+        out.println();
+        out.println("@Override");
+        out.println("@SuppressWarnings(\"unchecked\")");
+        out.println("public <E, R extends org.jooq.Record> org.jooq.RecordUnmapper<E, R> provide(Class<? extends E> type, org.jooq.RecordType<R> recordType) {");
+        out.println("Object unmapper = MAPPERS.get(type);");
+        out.println("return unmapper != null ? (org.jooq.RecordUnmapper<E, R>) unmapper : unmappers.provide(type, recordType);");
+        out.println("}");
+        out.println("}");
+    }
+
+    /**
+     * @return whether a record mapper is generated for the given table, which requires mutable POJOs and records
+     */
+    protected boolean generatesRecordMapper(TableDefinition table) {
+        return Boolean.parseBoolean(table.getDatabase().getProperties().getProperty(RECORD_MAPPERS_PROPERTY))
+                && generatesMutablePojos();
+    }
+
+    private boolean generatesMutablePojos() {
+        return generateRecords() && generatePojos() && !generateImmutablePojos() && !generatePojosAsJavaRecordClasses();
+    }
+
+    private void generateRecordMapper(TableDefinition table) {
+        String recordType = getStrategy().getFullJavaClassName(table, Mode.RECORD);
+        String pojoType = getStrategy().getFullJavaClassName(table, Mode.POJO);
+        String className = getStrategy().getJavaClassName(table, Mode.POJO) + RECORD_MAPPER_SUFFIX;
+
+        JavaWriter out = newJavaWriter(recordMapperFile(table));
+        log.info("Generating record mapper", out.file().getName());
+        out.println("package " + recordMapperPackageName(table) + ";");
+        out.println();
+        out.println();
+        out.println("/**");
+        out.println(" * Maps between {@link " + recordType + "} and {@link " + pojoType + "} by the generated accessors,");
+        out.println(" * without reflection.");
+        out.println(" */");
+        out.println("public final class " + className + " implements org.jooq.RecordMapper<org.jooq.Record, " + pojoType
+                + ">, org.jooq.RecordUnmapper<" + pojoType + ", " + recordType + "> {");
+        out.println();
+        out.println("public static final " + className + " INSTANCE = new " + className + "();");
+        out.println();
+        out.println("@Override");
+        out.println("public " + pojoType + " map(org.jooq.Record source) {");
+        out.println("if (source == null) {");
+        out.println("return null;");
+        out.println("}");
+        // a record of another query type is copied into the table record once, by field
+        out.println(recordType + " record = source instanceof " + recordType + " ? (" + recordType + ") source : source.into("
+                + getStrategy().getFullJavaIdentifier(table) + ");");
+        out.println(pojoType + " pojo = new " + pojoType + "();");
+        for (ColumnDefinition column : table.getColumns()) {
+            out.println("pojo." + getStrategy().getJavaSetterName(column, Mode.POJO) + "(record." + getStrategy().getJavaGetterName(column, Mode.RECORD) + "());");
+        }
+        out.println("return pojo;");
+        out.println("}");
+        out.println();
+        out.println("@Override");
+        out.println("public " + recordType + " unmap(" + pojoType + " pojo) {");
+        out.println(recordType + " record = new " + recordType + "();");
+        for (ColumnDefinition column : table.getColumns()) {
+            out.println("record." + getStrategy().getJavaSetterName(column, Mode.RECORD) + "(pojo." + getStrategy().getJavaGetterName(column, Mode.POJO) + "());");
+        }
+        out.println("return record;");
+        out.println("}");
+        out.println("}");
+        closeJavaWriter(out);
+    }
+
+    private String recordMapperPackageName(TableDefinition table) {
+        return getStrategy().getJavaPackageName(table, Mode.DEFAULT) + ".mappers";
+    }
+
+    private String recordMapperClassName(TableDefinition table) {
+        return recordMapperPackageName(table) + "." + getStrategy().getJavaClassName(table, Mode.POJO) + RECORD_MAPPER_SUFFIX;
+    }
+
+    private File recordMapperFile(TableDefinition table) {
+        return new File(getTargetDirectory(), recordMapperClassName(table).replace('.', File.separatorChar) + ".java");
+    }
+
+    @Override
+    protected void generateDao(TableDefinition table) {
+        if (generates(table)) {
+            // jOOQ generates a single column finder for every column of the table it is given
+            super.generateDao(generatesIndexedFinders(table) ? IndexedFinders.indexedView(table) : table);
+            if (generatesAsyncDao(table)) {
+                generateAsyncDao(table);
+            }
+        }
+    }
+
+    @Override
+    protected void generateInterface(TableDefinition table) {
+        if (generates(table)) {
+            super.generateInterface(table);
+        }
+    }
+
+    /**
+     * @return whether the classes of the given table are generated in this run
+     */
+    protected boolean generates(TableDefinition table) {
+        planOnce(table.getDatabase());
+        String name = table.getQualifiedName();
+        return (shardTables == null || shardTables.contains(name)) && (generatedTables == null || generatedTables.contains(name));
+    }
+
+    private void planOnce(Database database) {
+        if (!planned) {
+            shard(database);
+            plan(database);
+            planned = true;
+        }
+    }
+
+    private void shard(Database database) {
+        String count = database.getProperties().getProperty(SHARD_COUNT_PROPERTY);
+        if (count == null) {
+            return;
+        }
+        int shards = Integer.parseInt(count);
+        shardIndex = Integer.parseInt(database.getProperties().getProperty(SHARD_INDEX_PROPERTY));
+
+        Map<String, Integer> columnCounts = new HashMap<>();
+        for (SchemaDefinition schema : database.getSchemata()) {
+            for (TableDefinition table : database.getTables(schema)) {
+                columnCounts.put(table.getQualifiedName(), table.getColumns().size());
+            }
+        }
+        shardTables = new HashSet<>();
+        assignShards(columnCounts, shards).forEach((table, shard) -> {
+            if (shard == shardIndex) {
+                shardTables.add(table);
+            }
+        });
+        log.info("Sharded generation", "shard " + (shardIndex + 1) + " of " + shards + ": " + shardTables.size() + " of " + columnCounts.size() + " tables");
+    }
+
+    /**
+     * Assigns the tables to the shards, the widest first and each to the shard with the fewest columns so far, so every
+     * shard generates about the same amount of code. Every shard computes the same assignment, so each table is
+     * generated by exactly one shard.
+     *
+     * @param columnCounts the number of columns by qualified table name
+     * @return the shard by qualified table name
+     */
+    static Map<String, Integer> assignShards(Map<String, Integer> columnCounts, int shards) {
+        List<String> tables = new ArrayList<>(columnCounts.keySet());
+        tables.sort(Comparator.comparingInt((String table) -> columnCounts.get(table)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        long[] columns = new long[shards];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String table : tables) {
+            int shard = 0;
+            for (int candidate = 1; candidate < shards; candidate++) {
+                if (columns[candidate] < columns[shard]) {
+                    shard = candidate;
+                }
+            }
+            columns[shard] += columnCounts.get(table) + 1;
+            assignment.put(table, shard);
+        }
+        return assignment;
+    }
+
+    private void plan(Database database) {
+        String stateDirectory = database.getProperties().getProperty(STATE_DIR_PROPERTY);
+        if (stateDirectory == null) {
+            return;
+        }
+        File stateDir = new File(stateDirectory);
+        Map<String, String> fingerprints = CatalogFingerprints.of(database);
+        Properties previous = load(new File(stateDir, FINGERPRINTS_FILE));
+
+        Set<String> changed = new HashSet<>();
+        List<String> retainedFiles = new ArrayList<>();
+        // other objects than tables may be referenced from any table, and the first run has nothing to build on
+        boolean full = previous.isEmpty() || !fingerprints.get(CatalogFingerprints.SCHEMA_OBJECTS).equals(previous.getProperty(CatalogFingerprints.SCHEMA_OBJECTS));
+        Path target = new File(getTargetDirectory()).toPath();
+        for (SchemaDefinition schema : database.getSchemata()) {
+            for (TableDefinition table : database.getTables(schema)) {
+                if (full || !fingerprints.get(table.getQualifiedName()).equals(previous.getProperty(table.getQualifiedName()))) {
+                    changed.add(table.getQualifiedName());
+                } else {
+                    List<File> tableFiles = new ArrayList<>();
+                    for (Mode mode : TABLE_MODES) {
+                        tableFiles.add(getStrategy().getFile(table, mode));
+                    }
+                    if (generatesRecordMapper(table)) {
+                        tableFiles.add(recordMapperFile(table));
+                    }
+                    if (generatesCopyWriter(table)) {
+                        tableFiles.add(copyWriterFile(table, getStrategy().getJavaClassName(table, Mode.DEFAULT) + COPY_WRITER_SUFFIX));
+                    }
+                    if (generatesAsyncDao(table)) {
+                        tableFiles.add(asyncDaoFile(table, getStrategy().getJavaClassName(table, Mode.DEFAULT) + ASYNC_DAO_SUFFIX));
+                    }
+                    for (File file : tableFiles) {
+                        retainedFiles.add(target.relativize(file.toPath()).toString().replace(File.separatorChar, '/'));
+                    }
+                }
+            }
+        }
+        int tables = fingerprints.size() - 1;
+        generatedTables = full ? null : changed;
+        // all shards plan the same, the first one records the plan for the task
+        if (shardIndex > 0) {
+            return;
+        }
+        log.info("Incremental generation", full ? "all " + tables + " tables" : changed.size() + " of " + tables + " tables changed");
+
+        Properties pending = new Properties();
+        pending.putAll(fingerprints);
+        store(pending, new File(stateDir, PENDING_FINGERPRINTS_FILE));
+        write(new File(stateDir, RETAINED_FILES_FILE), String.join("\n", retainedFiles));
+        Properties plan = new Properties();
+        plan.setProperty("full", String.valueOf(full));
+        plan.setProperty("tables", String.valueOf(tables));
+        plan.setProperty("generatedTables", String.valueOf(changed.size()));
+        store(plan, new File(stateDir, PLAN_FILE));
+    }
+
+    private static Properties load(File file) {
+        Properties properties = new Properties();
+        if (file.isFile()) {
+            try (var in = Files.newInputStream(file.toPath())) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return properties;
+    }
+
+    private static void store(Properties properties, File file) {
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            properties.store(out, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(File file, String content) {
+        try {
+            Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
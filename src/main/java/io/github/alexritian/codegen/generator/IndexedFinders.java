@@ -0,0 +1,127 @@
+package io.github.alexritian.codegen.generator;
+
+import org.jooq.meta.ColumnDefinition;
+import org.jooq.meta.IndexColumnDefinition;
+import org.jooq.meta.IndexDefinition;
+import org.jooq.meta.TableDefinition;
+import org.jooq.meta.UniqueKeyDefinition;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The DAO finders an index can serve: a B-tree index serves the lookups on every prefix of its columns, so only the
+ * leading column of an index backs a single column finder.
+ *
+ * @author Too_young
+ */
+final class IndexedFinders {
+
+    private IndexedFinders() {
+    }
+
+    /**
+     * @return the columns of the indexes, the primary key and the unique keys of the table, without duplicates and
+     * ending before the first expression of an index
+     */
+    static List<List<ColumnDefinition>> indexes(TableDefinition table) {
+        Map<List<String>, List<ColumnDefinition>> indexes = new LinkedHashMap<>();
+        for (UniqueKeyDefinition key : uniqueConstraints(table)) {
+            add(indexes, key.getKeyColumns());
+        }
+        for (IndexDefinition index : table.getIndexes()) {
+            List<ColumnDefinition> columns = columns(table, index);
+            if (!columns.isEmpty()) {
+                add(indexes, columns);
+            }
+        }
+        return new ArrayList<>(indexes.values());
+    }
+
+    /**
+     * @return the column lists that identify a row, by which the records can be paged; a unique key with a nullable
+     * column doesn't, as it allows many rows with a null
+     */
+    static List<List<ColumnDefinition>> uniqueKeys(TableDefinition table) {
+        Map<List<String>, List<ColumnDefinition>> keys = new LinkedHashMap<>();
+        for (UniqueKeyDefinition key : uniqueConstraints(table)) {
+            add(keys, key.getKeyColumns());
+        }
+        for (IndexDefinition index : table.getIndexes()) {
+            List<ColumnDefinition> columns = columns(table, index);
+            if (index.isUnique() && columns.size() == index.getIndexColumns().size()) {
+                add(keys, columns);
+            }
+        }
+        return keys.values().stream().filter(key -> key.stream().noneMatch(column -> column.getType().isNullable())).toList();
+    }
+
+    /**
+     * @return the prefixes of two or more columns of the indexes of the table
+     */
+    static List<List<ColumnDefinition>> compositePrefixes(TableDefinition table) {
+        Map<List<String>, List<ColumnDefinition>> prefixes = new LinkedHashMap<>();
+        for (List<ColumnDefinition> index : indexes(table)) {
+            for (int length = 2; length <= index.size(); length++) {
+                add(prefixes, List.copyOf(index.subList(0, length)));
+            }
+        }
+        return new ArrayList<>(prefixes.values());
+    }
+
+    /**
+     * @return the columns of the table that don't lead any index
+     */
+    static List<ColumnDefinition> unindexedColumns(TableDefinition table) {
+        Set<String> leading = new HashSet<>();
+        for (List<ColumnDefinition> index : indexes(table)) {
+            leading.add(index.get(0).getName());
+        }
+        return table.getColumns().stream().filter(column -> !leading.contains(column.getName())).toList();
+    }
+
+    /**
+     * @return the table with only the columns leading an index, for which jOOQ generates the single column finders of
+     * the DAO
+     */
+    static TableDefinition indexedView(TableDefinition table) {
+        List<ColumnDefinition> unindexed = unindexedColumns(table);
+        return new IndexedTableDefinition(table, table.getColumns().stream().filter(column -> !unindexed.contains(column)).toList());
+    }
+
+    /**
+     * @return the table of the given view, or the given table if it isn't a view
+     */
+    static TableDefinition table(TableDefinition table) {
+        return table instanceof IndexedTableDefinition view ? view.getTableDefinition() : table;
+    }
+
+    private static void add(Map<List<String>, List<ColumnDefinition>> indexes, List<ColumnDefinition> columns) {
+        indexes.putIfAbsent(columns.stream().map(ColumnDefinition::getName).toList(), columns);
+    }
+
+    private static List<UniqueKeyDefinition> uniqueConstraints(TableDefinition table) {
+        List<UniqueKeyDefinition> keys = new ArrayList<>();
+        if (table.getPrimaryKey() != null) {
+            keys.add(table.getPrimaryKey());
+        }
+        keys.addAll(table.getUniqueKeys());
+        return keys;
+    }
+
+    private static List<ColumnDefinition> columns(TableDefinition table, IndexDefinition index) {
+        List<ColumnDefinition> columns = new ArrayList<>();
+        for (IndexColumnDefinition indexColumn : index.getIndexColumns()) {
+            ColumnDefinition column = table.getColumn(indexColumn.getName());
+            if (column == null) {
+                break;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+}
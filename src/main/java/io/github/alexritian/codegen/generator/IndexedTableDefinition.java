@@ -0,0 +1,308 @@
+package io.github.alexritian.codegen.generator;
+
+import org.jooq.Name;
+import org.jooq.Record;
+import org.jooq.Table;
+import org.jooq.TableOptions;
+import org.jooq.meta.CatalogDefinition;
+import org.jooq.meta.CheckConstraintDefinition;
+import org.jooq.meta.ColumnDefinition;
+import org.jooq.meta.Database;
+import org.jooq.meta.Definition;
+import org.jooq.meta.EmbeddableDefinition;
+import org.jooq.meta.ForeignKeyDefinition;
+import org.jooq.meta.IdentityDefinition;
+import org.jooq.meta.IndexDefinition;
+import org.jooq.meta.InverseForeignKeyDefinition;
+import org.jooq.meta.ManyToManyKeyDefinition;
+import org.jooq.meta.PackageDefinition;
+import org.jooq.meta.ParameterDefinition;
+import org.jooq.meta.SchemaDefinition;
+import org.jooq.meta.TableDefinition;
+import org.jooq.meta.UniqueKeyDefinition;
+
+import java.util.List;
+
+/**
+ * A table whose {@link #getColumns() columns} are only the ones leading an index, for which jOOQ generates the single
+ * column finders of the DAO. Everything else, including the lookup of a column by its name, is answered by the table.
+ *
+ * @author Too_young
+ */
+final class IndexedTableDefinition implements TableDefinition {
+    private final TableDefinition table;
+    private final List<ColumnDefinition> columns;
+
+    IndexedTableDefinition(TableDefinition table, List<ColumnDefinition> columns) {
+        this.table = table;
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * @return the table with all of its columns
+     */
+    TableDefinition getTableDefinition() {
+        return table;
+    }
+
+    @Override
+    public List<ColumnDefinition> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public ColumnDefinition getColumn(String columnName) {
+        return table.getColumn(columnName);
+    }
+
+    @Override
+    public ColumnDefinition getColumn(String columnName, boolean ignoreCase) {
+        return table.getColumn(columnName, ignoreCase);
+    }
+
+    @Override
+    public ColumnDefinition getColumn(int columnIndex) {
+        return table.getColumn(columnIndex);
+    }
+
+    @Override
+    public boolean isSynthetic() {
+        return table.isSynthetic();
+    }
+
+    @Override
+    public List<EmbeddableDefinition> getEmbeddables() {
+        return table.getEmbeddables();
+    }
+
+    @Override
+    public List<EmbeddableDefinition> getReferencedEmbeddables() {
+        return table.getReferencedEmbeddables();
+    }
+
+    @Override
+    public List<IndexDefinition> getIndexes() {
+        return table.getIndexes();
+    }
+
+    @Override
+    public UniqueKeyDefinition getPrimaryKey() {
+        return table.getPrimaryKey();
+    }
+
+    @Override
+    public List<UniqueKeyDefinition> getUniqueKeys() {
+        return table.getUniqueKeys();
+    }
+
+    @Override
+    public UniqueKeyDefinition getUniqueKey(String name) {
+        return table.getUniqueKey(name);
+    }
+
+    @Override
+    public List<UniqueKeyDefinition> getKeys() {
+        return table.getKeys();
+    }
+
+    @Override
+    public UniqueKeyDefinition getKey(String name) {
+        return table.getKey(name);
+    }
+
+    @Override
+    public List<ForeignKeyDefinition> getForeignKeys() {
+        return table.getForeignKeys();
+    }
+
+    @Override
+    public List<ForeignKeyDefinition> getForeignKeys(TableDefinition referenced) {
+        return table.getForeignKeys(referenced);
+    }
+
+    @Override
+    public List<InverseForeignKeyDefinition> getInverseForeignKeys() {
+        return table.getInverseForeignKeys();
+    }
+
+    @Override
+    public List<InverseForeignKeyDefinition> getInverseForeignKeys(TableDefinition referencing) {
+        return table.getInverseForeignKeys(referencing);
+    }
+
+    @Override
+    public List<ManyToManyKeyDefinition> getManyToManyKeys() {
+        return table.getManyToManyKeys();
+    }
+
+    @Override
+    public List<ManyToManyKeyDefinition> getManyToManyKeys(TableDefinition referenced) {
+        return table.getManyToManyKeys(referenced);
+    }
+
+    @Override
+    public List<CheckConstraintDefinition> getCheckConstraints() {
+        return table.getCheckConstraints();
+    }
+
+    @Override
+    public IdentityDefinition getIdentity() {
+        return table.getIdentity();
+    }
+
+    @Override
+    public TableDefinition getParentTable() {
+        return table.getParentTable();
+    }
+
+    @Override
+    public List<TableDefinition> getChildTables() {
+        return table.getChildTables();
+    }
+
+    @Override
+    public Table<Record> getTable() {
+        return table.getTable();
+    }
+
+    @Override
+    public TableOptions getTableOptions() {
+        return table.getTableOptions();
+    }
+
+    @Override
+    public List<ParameterDefinition> getParameters() {
+        return table.getParameters();
+    }
+
+    @Override
+    public boolean isTemporary() {
+        return table.isTemporary();
+    }
+
+    @Override
+    public boolean isView() {
+        return table.isView();
+    }
+
+    @Override
+    public boolean isMaterializedView() {
+        return table.isMaterializedView();
+    }
+
+    @Override
+    public boolean isTableValuedFunction() {
+        return table.isTableValuedFunction();
+    }
+
+    @Override
+    public TableDefinition getReferencedTable() {
+        return table.getReferencedTable();
+    }
+
+    @Override
+    public Database getDatabase() {
+        return table.getDatabase();
+    }
+
+    @Override
+    public CatalogDefinition getCatalog() {
+        return table.getCatalog();
+    }
+
+    @Override
+    public SchemaDefinition getSchema() {
+        return table.getSchema();
+    }
+
+    @Override
+    public PackageDefinition getPackage() {
+        return table.getPackage();
+    }
+
+    @Override
+    public String getName() {
+        return table.getName();
+    }
+
+    @Override
+    public String getInputName() {
+        return table.getInputName();
+    }
+
+    @Override
+    public String getOutputName() {
+        return table.getOutputName();
+    }
+
+    @Override
+    public String getComment() {
+        return table.getComment();
+    }
+
+    @Override
+    public List<Definition> getDefinitionPath() {
+        return table.getDefinitionPath();
+    }
+
+    @Override
+    public String getQualifiedName() {
+        return table.getQualifiedName();
+    }
+
+    @Override
+    public String getQualifiedInputName() {
+        return table.getQualifiedInputName();
+    }
+
+    @Override
+    public String getQualifiedOutputName() {
+        return table.getQualifiedOutputName();
+    }
+
+    @Override
+    public Name getQualifiedNamePart() {
+        return table.getQualifiedNamePart();
+    }
+
+    @Override
+    public Name getQualifiedInputNamePart() {
+        return table.getQualifiedInputNamePart();
+    }
+
+    @Override
+    public Name getQualifiedOutputNamePart() {
+        return table.getQualifiedOutputNamePart();
+    }
+
+    @Override
+    public List<String> getPartiallyQualifiedNames() {
+        return table.getPartiallyQualifiedNames();
+    }
+
+    @Override
+    public String getOverload() {
+        return table.getOverload();
+    }
+
+    @Override
+    public String getSource() {
+        return table.getSource();
+    }
+
+    // the generator looks definitions up in maps, where the table stands for itself
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IndexedTableDefinition other ? table.equals(other.table) : table.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return table.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return table.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.alexritian.codegen.migration;
+
+import org.gradle.api.GradleException;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.conf.ParseUnknownFunctions;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+import org.jooq.impl.ParserException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses migration scripts with the jOOQ parser, with the settings jOOQ's {@code DDLDatabase} reads them with.
+ *
+ * @author Too_young
+ */
+public final class MigrationParser {
+
+    private static final Pattern DOLLAR_QUOTE = Pattern.compile("\\$([A-Za-z_][A-Za-z_0-9]*)?\\$");
+    private static final Pattern COMMENT = Pattern.compile("--[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    // the schema statements the generated code depends on, and the data statements around them
+    private static final Pattern SUPPORTED_STATEMENT = Pattern.compile("(CREATE\\s+(UNIQUE\\s+)?INDEX"
+            + "|CREATE\\s+((GLOBAL|LOCAL)\\s+)?((TEMP|TEMPORARY|UNLOGGED)\\s+)?TABLE"
+            + "|CREATE\\s+(OR\\s+REPLACE\\s+)?(MATERIALIZED\\s+)?VIEW"
+            + "|CREATE\\s+(SEQUENCE|SCHEMA|TYPE|DOMAIN)"
+            + "|(ALTER|DROP)\\s+(TABLE|VIEW|INDEX|SEQUENCE|SCHEMA|TYPE|DOMAIN)"
+            + "|COMMENT\\s+ON|INSERT\\s+INTO|UPDATE|DELETE\\s+FROM|TRUNCATE)\\b", Pattern.CASE_INSENSITIVE);
+
+    private MigrationParser() {
+    }
+
+    public static DSLContext dslContext() {
+        return DSL.using(SQLDialect.POSTGRES, new Settings()
+                .withParseIgnoreComments(true)
+                .withParseUnknownFunctions(ParseUnknownFunctions.IGNORE));
+    }
+
+    /**
+     * Parses every script and adds a problem, prefixed with the file, line and column, for every script that fails.
+     *
+     * @return the queries of the scripts that were parsed, in the order of the scripts
+     */
+    public static List<List<Query>> parse(DSLContext ctx, MigrationScripts scripts, List<String> problems) {
+        return parse(ctx, scripts, problems, problems);
+    }
+
+    /**
+     * Parses every script like {@link #parse(DSLContext, MigrationScripts, List)}, but tells failures in statements the
+     * jOOQ parser reads, which the database most likely rejects as well, from failures in statements it doesn't support
+     * at all, e.g. {@code DO} blocks and function bodies.
+     *
+     * @param problems receives the failures in statements the parser reads
+     * @param unsupported receives the failures in statements the parser doesn't support
+     */
+    public static List<List<Query>> parse(DSLContext ctx, MigrationScripts scripts, List<String> problems, List<String> unsupported) {
+        List<List<Query>> queries = new ArrayList<>();
+        for (MigrationScript script : scripts.getScripts()) {
+            try {
+                queries.add(Arrays.asList(ctx.parser().parse(read(script)).queries()));
+            } catch (ParserException e) {
+                String problem = script.getRelativePath() + ":" + e.line() + ":" + e.column() + ": " + e.getMessage();
+                (isSupported(e.sql(), e.position()) ? problems : unsupported).add(problem);
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * @param position the position of the parser error in the script
+     * @return whether the statement at the given position is of a kind the jOOQ parser reads
+     */
+    static boolean isSupported(String sql, int position) {
+        int end = Math.max(0, Math.min(position, sql.length()));
+        // the parser doesn't look into dollar-quoted strings, which hold the bodies of functions and DO blocks
+        Matcher dollarQuotes = DOLLAR_QUOTE.matcher(sql).region(0, end);
+        int quotes = 0;
+        while (dollarQuotes.find()) {
+            quotes++;
+        }
+        if (quotes % 2 == 1) {
+            return false;
+        }
+        int next = sql.indexOf(';', end);
+        String statement = COMMENT.matcher(sql.substring(sql.lastIndexOf(';', end - 1) + 1, next < 0 ? sql.length() : next)).replaceAll(" ").strip();
+        return SUPPORTED_STATEMENT.matcher(statement).lookingAt() && !DOLLAR_QUOTE.matcher(statement).find();
+    }
+
+    private static String read(MigrationScript script) {
+        try {
+            return Files.readString(script.getFile().toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("Failed to read the migration script " + script.getFile(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.alexritian.codegen.migration;
+
+import org.flywaydb.core.api.MigrationVersion;
+
+import java.io.File;
+
+/**
+ * A Flyway SQL migration script found on disk, e.g. {@code V20241008_1621__init.sql}.
+ *
+ * @author Too_young
+ */
+public final class MigrationScript {
+    private final File file;
+    private final String relativePath;
+    private final MigrationVersion version;
+    private final String description;
+    private final String checksum;
+
+    MigrationScript(File file, String relativePath, MigrationVersion version, String description, String checksum) {
+        this.file = file;
+        this.relativePath = relativePath;
+        this.version = version;
+        this.description = description;
+        this.checksum = checksum;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * @return the version of a versioned migration, {@code null} for a repeatable migration
+     */
+    public MigrationVersion getVersion() {
+        return version;
+    }
+
+    public boolean isRepeatable() {
+        return version == null;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return the SHA-256 of the script content with normalized line endings
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public String toString() {
+        return relativePath;
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.alexritian.codegen.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationVersion;
+import org.gradle.api.GradleException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The Flyway SQL migration scripts of a migration directory, in the order Flyway applies them: versioned migrations by
+ * version, followed by repeatable migrations by description.
+ *
+ * @author Too_young
+ */
+public final class MigrationScripts {
+    private static final String VERSIONED_PREFIX = "V";
+    private static final String REPEATABLE_PREFIX = "R";
+    private static final String SEPARATOR = "__";
+    private static final String SUFFIX = ".sql";
+
+    private final List<MigrationScript> scripts;
+
+    private MigrationScripts(List<MigrationScript> scripts) {
+        this.scripts = Collections.unmodifiableList(scripts);
+    }
+
+    public static MigrationScripts scan(File directory) {
+        List<MigrationScript> scripts = new ArrayList<>();
+        if (directory.isDirectory()) {
+            Path root = directory.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path path : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    MigrationScript script = toScript(root, path);
+                    if (script != null) {
+                        scripts.add(script);
+                    }
+                }
+            } catch (IOException e) {
+                throw new GradleException("Failed to read the migration scripts in " + directory, e);
+            }
+        }
+        scripts.sort(Comparator.comparing(MigrationScript::isRepeatable)
+                .thenComparing(MigrationScript::getVersion, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(MigrationScript::getDescription)
+                .thenComparing(MigrationScript::getRelativePath));
+        return new MigrationScripts(scripts);
+    }
+
+    private static MigrationScript toScript(Path root, Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        int separator = fileName.indexOf(SEPARATOR);
+        if (!fileName.endsWith(SUFFIX) || separator < 1) {
+            return null;
+        }
+        String prefix = fileName.substring(0, 1);
+        String description = fileName.substring(separator + SEPARATOR.length(), fileName.length() - SUFFIX.length()).replace('_', ' ');
+        MigrationVersion version;
+        if (prefix.equals(VERSIONED_PREFIX)) {
+            try {
+                version = MigrationVersion.fromVersion(fileName.substring(1, separator));
+            } catch (FlywayException e) {
+                throw new GradleException("Invalid migration version in " + path + ": " + e.getMessage(), e);
+            }
+        } else if (prefix.equals(REPEATABLE_PREFIX) && separator == 1) {
+            version = null;
+        } else {
+            return null;
+        }
+        String relativePath = root.relativize(path).toString().replace(File.separatorChar, '/');
+        return new MigrationScript(path.toFile(), relativePath, version, description, sha256(normalizedContent(path)));
+    }
+
+    public List<MigrationScript> getScripts() {
+        return scripts;
+    }
+
+    public boolean isEmpty() {
+        return scripts.isEmpty();
+    }
+
+    /**
+     * @return whether a database migrated with these scripts can be migrated to the given scripts by Flyway, i.e. the
+     * given scripts only add versioned scripts after the existing ones, or add or change repeatable scripts
+     */
+    public boolean canMigrateTo(MigrationScripts next) {
+        List<MigrationScript> versioned = versioned(scripts);
+        List<MigrationScript> nextVersioned = versioned(next.scripts);
+        if (nextVersioned.size() < versioned.size()) {
+            return false;
+        }
+        for (int i = 0; i < versioned.size(); i++) {
+            if (!sameScript(versioned.get(i), nextVersioned.get(i))) {
+                return false;
+            }
+        }
+        // Flyway doesn't undo a removed repeatable script
+        return scripts.stream().filter(MigrationScript::isRepeatable).allMatch(script -> next.scripts.stream()
+                .anyMatch(nextScript -> nextScript.getRelativePath().equals(script.getRelativePath())));
+    }
+
+    /**
+     * @return a problem for every version used by several versioned scripts and every description used by several
+     * repeatable scripts, both of which Flyway rejects
+     */
+    public List<String> duplicates() {
+        Map<String, List<MigrationScript>> byKey = new LinkedHashMap<>();
+        for (MigrationScript script : scripts) {
+            String key = script.isRepeatable() ? "description '" + script.getDescription() + "'" : "version " + script.getVersion();
+            byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(script);
+        }
+        List<String> problems = new ArrayList<>();
+        byKey.forEach((key, duplicates) -> {
+            if (duplicates.size() > 1) {
+                problems.add(duplicates.stream().map(MigrationScript::getRelativePath).collect(Collectors.joining(", ")) + ": duplicate " + key);
+            }
+        });
+        return problems;
+    }
+
+    /**
+     * @return the versions of the versioned scripts by relative path
+     */
+    public Map<String, MigrationVersion> versions() {
+        Map<String, MigrationVersion> versions = new LinkedHashMap<>();
+        versioned(scripts).forEach(script -> versions.put(script.getRelativePath(), script.getVersion()));
+        return versions;
+    }
+
+    /**
+     * @param applied the {@link #versions() versions} of the scripts applied before
+     * @return a problem for every versioned script that wasn't applied before, but is older than the newest script that
+     * was, which Flyway rejects on a database that is migrated already
+     */
+    public List<String> outOfOrder(Map<String, MigrationVersion> applied) {
+        MigrationVersion latest = applied.values().stream().max(Comparator.naturalOrder()).orElse(null);
+        List<String> problems = new ArrayList<>();
+        for (MigrationScript script : versioned(scripts)) {
+            if (latest != null && !applied.containsKey(script.getRelativePath()) && script.getVersion().compareTo(latest) < 0) {
+                problems.add(script.getRelativePath() + ": version " + script.getVersion() + " is older than the applied version " + latest);
+            }
+        }
+        return problems;
+    }
+
+    private static List<MigrationScript> versioned(List<MigrationScript> scripts) {
+        return scripts.stream().filter(script -> !script.isRepeatable()).toList();
+    }
+
+    private static boolean sameScript(MigrationScript script, MigrationScript other) {
+        return script.getRelativePath().equals(other.getRelativePath()) && script.getChecksum().equals(other.getChecksum());
+    }
+
+    /**
+     * @return a checksum over the ordered scripts and the given additional keys, e.g. the schema and the image the
+     * scripts are applied to
+     */
+    public String checksum(String... keys) {
+        return checksum(scripts.size(), keys);
+    }
+
+    /**
+     * @return a checksum over the first {@code count} ordered scripts and the given additional keys
+     */
+    public String checksum(int count, String... keys) {
+        StringBuilder content = new StringBuilder();
+        for (String key : keys) {
+            content.append(key).append('\n');
+        }
+        for (MigrationScript script : scripts.subList(0, count)) {
+            content.append(script.getVersion()).append('|')
+                    .append(script.getRelativePath()).append('|')
+                    .append(script.getChecksum()).append('\n');
+        }
+        return sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the checksums of every prefix of the ordered scripts and the given additional keys, newest first, so
+     * that a history with scripts added at its end still finds the checksum of the history it continues
+     */
+    public List<String> prefixChecksums(String... keys) {
+        List<String> checksums = new ArrayList<>();
+        for (int count = scripts.size(); count > 0; count--) {
+            checksums.add(checksum(count, keys));
+        }
+        return checksums;
+    }
+
+    private static byte[] normalizedContent(Path path) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        ByteArrayOutputStream normalized = new ByteArrayOutputStream(content.length);
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\r') {
+                normalized.write('\n');
+                if (i + 1 < content.length && content[i + 1] == '\n') {
+                    i++;
+                }
+            } else {
+                normalized.write(content[i]);
+            }
+        }
+        return normalized.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.alexritian.codegen.migration;
+
+/**
+ * How strictly the migration scripts are checked before a database is started for them.
+ *
+ * @author Too_young
+ */
+public enum MigrationValidation {
+    /**
+     * Skips the checks.
+     */
+    OFF,
+    /**
+     * Fails on duplicate versions, which Flyway rejects as well. Errors in statements of a kind the jOOQ parser reads,
+     * and scripts added with a version older than the newest one seen before, are logged as warnings. Statements the
+     * parser doesn't support at all, e.g. {@code DO} blocks and function bodies, are left to the database.
+     */
+    LENIENT,
+    /**
+     * Fails on all of these.
+     */
+    STRICT
+}
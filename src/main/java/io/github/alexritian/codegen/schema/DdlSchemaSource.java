@@ -0,0 +1,112 @@
+package io.github.alexritian.codegen.schema;
+
+import io.github.alexritian.codegen.migration.MigrationParser;
+import io.github.alexritian.codegen.migration.MigrationScripts;
+import org.jooq.DSLContext;
+import org.jooq.Query;
+import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
+import org.jooq.meta.jaxb.Configuration;
+import org.jooq.meta.jaxb.Database;
+import org.jooq.meta.jaxb.Jdbc;
+import org.jooq.meta.jaxb.Property;
+import org.jooq.meta.jaxb.SchemaMappingType;
+import org.jooq.tools.StringUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the schema by interpreting the DDL of the migration scripts with jOOQ's {@code DDLDatabase}. The scripts are
+ * parsed and interpreted up front, so statements jOOQ can't handle are reported with their file and line before the
+ * generator runs.
+ *
+ * @author Too_young
+ */
+public class DdlSchemaSource implements SchemaSource {
+    private static final String DDL_DATABASE = "org.jooq.meta.extensions.ddl.DDLDatabase";
+    private static final String H2_PUBLIC = "PUBLIC";
+
+    private final File migrationsDir;
+    private int tableCount;
+    private int columnCount;
+    private boolean unqualifiedTables;
+
+    public DdlSchemaSource(File migrationsDir) {
+        this.migrationsDir = migrationsDir;
+    }
+
+    /**
+     * @return the number of tables the interpreted migration scripts declare
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    /**
+     * @return the number of columns of all tables the interpreted migration scripts declare
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public void apply(Configuration configuration) {
+        MigrationScripts scripts = MigrationScripts.scan(migrationsDir);
+        List<String> problems = new ArrayList<>();
+        DSLContext ctx = MigrationParser.dslContext();
+        List<List<Query>> queries = MigrationParser.parse(ctx, scripts, problems);
+        if (problems.isEmpty()) {
+            interpret(ctx, scripts, queries, problems);
+        }
+        if (!problems.isEmpty()) {
+            throw new UnsupportedSchemaException("The migration scripts contain statements that jOOQ can't interpret:", problems);
+        }
+
+        Database database = configuration.getGenerator().getDatabase();
+        configuration.setJdbc(new Jdbc());
+        // unqualified tables end up in the PUBLIC schema of H2, which is generated under the name of the schema Flyway
+        // creates them in, the first of several schemas
+        if (unqualifiedTables) {
+            if (!database.getSchemata().isEmpty()) {
+                SchemaMappingType schema = database.getSchemata().get(0);
+                schema.withOutputSchema(StringUtils.defaultIfBlank(schema.getOutputSchema(), schema.getInputSchema())).withInputSchema(H2_PUBLIC);
+            } else if (database.getInputSchema() != null) {
+                database.withOutputSchema(StringUtils.defaultIfBlank(database.getOutputSchema(), database.getInputSchema())).withInputSchema(H2_PUBLIC);
+            }
+        }
+        database.withName(DDL_DATABASE)
+                .withProperties(
+                        // unlike "**/*.sql", the pattern also matches the scripts directly in the directory
+                        new Property().withKey("scripts").withValue(new File(migrationsDir, "**.sql").getAbsolutePath()),
+                        new Property().withKey("sort").withValue("flyway"),
+                        new Property().withKey("defaultNameCase").withValue("lower"),
+                        new Property().withKey("parseIgnoreComments").withValue("true"));
+    }
+
+    private void interpret(DSLContext ctx, MigrationScripts scripts, List<List<Query>> queries, List<String> problems) {
+        List<Query> all = new ArrayList<>();
+        queries.forEach(all::addAll);
+        try {
+            List<Table<?>> tables = ctx.meta(all.toArray(new Query[0])).getTables();
+            tableCount = tables.size();
+            unqualifiedTables = tables.stream().anyMatch(table -> table.getSchema() == null || table.getSchema().getName().isEmpty());
+            columnCount = tables.stream().mapToInt(table -> table.fields().length).sum();
+        } catch (DataAccessException e) {
+            // interpret the history script by script to find the one that fails
+            List<Query> applied = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                applied.addAll(queries.get(i));
+                try {
+                    ctx.meta(applied.toArray(new Query[0])).getTables();
+                } catch (DataAccessException scriptException) {
+                    problems.add(scripts.getScripts().get(i).getRelativePath() + ": " + scriptException.getMessage());
+                    return;
+                }
+            }
+            problems.add(e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.github.alexritian.codegen.schema;
+
+import org.jooq.meta.jaxb.Configuration;
+
+/**
+ * Provides the schema the jOOQ code is generated from.
+ *
+ * @author Too_young
+ */
+public interface SchemaSource {
+
+    /**
+     * Makes the schema available and points the database of the given configuration to it.
+     *
+     * @throws UnsupportedSchemaException if the schema can't be provided by this source
+     */
+    void apply(Configuration configuration);
+
+}
@@ -0,0 +1,15 @@
+package io.github.alexritian.codegen.schema;
+
+/**
+ * @author Too_young
+ */
+public enum SchemaSourceType {
+    /**
+     * Applies the migration scripts to a Postgres container and reads the schema from it.
+     */
+    CONTAINER,
+    /**
+     * Interprets the DDL of the migration scripts with jOOQ, without a database.
+     */
+    DDL
+}
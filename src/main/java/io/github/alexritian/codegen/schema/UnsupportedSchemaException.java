@@ -0,0 +1,27 @@
+package io.github.alexritian.codegen.schema;
+
+import org.gradle.api.GradleException;
+
+import java.util.List;
+
+/**
+ * Thrown by a {@link SchemaSource} that can't provide the schema, e.g. because a migration script uses statements it
+ * doesn't understand.
+ *
+ * @author Too_young
+ */
+public class UnsupportedSchemaException extends GradleException {
+    private final List<String> problems;
+
+    public UnsupportedSchemaException(String message, List<String> problems) {
+        super(message + System.lineSeparator() + "  " + String.join(System.lineSeparator() + "  ", problems));
+        this.problems = List.copyOf(problems);
+    }
+
+    /**
+     * @return the problems, each prefixed with the file and line it was found at
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compiles the DAO variants generated with {@code asyncDaos} and checks their transaction handling, by a test of the
+ * generated project. No operation reaches a database.
+ *
+ * @author Too_young
+ */
+class AsyncDaosTest {
+
+    private static final String SCRIPT = """
+            dependencies {
+                testImplementation 'org.springframework:spring-tx:6.1.14'
+                testImplementation platform('org.junit:junit-bom:5.10.3')
+                testImplementation 'org.junit.jupiter:junit-jupiter'
+                testRuntimeOnly 'org.junit.platform:junit-platform-launcher'
+            }
+
+            test {
+                useJUnitPlatform()
+            }
+            """;
+
+    // the variant is looked up by its name, so the test doesn't depend on the names of the generated members
+    private static final String ASYNC_DAO_TEST = """
+            import org.jooq.Configuration;
+            import org.jooq.SQLDialect;
+            import org.jooq.impl.DSL;
+            import org.junit.jupiter.api.Test;
+            import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+            import java.lang.reflect.InvocationTargetException;
+
+            import static org.junit.jupiter.api.Assertions.*;
+
+            class AsyncDaoTest {
+
+                @Test
+                void rejectsOperationsInASpringTransaction() throws Exception {
+                    Object async = async(DSL.using(SQLDialect.POSTGRES).configuration());
+                    TransactionSynchronizationManager.setActualTransactionActive(true);
+                    try {
+                        InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> async.getClass().getMethod("findAll").invoke(async));
+                        assertInstanceOf(IllegalStateException.class, e.getCause());
+                    } finally {
+                        TransactionSynchronizationManager.setActualTransactionActive(false);
+                    }
+                    assertNotNull(async.getClass().getMethod("findAll").invoke(async));
+                }
+
+                @Test
+                void runsOnTheGivenConfiguration() throws Exception {
+                    Object async = async(DSL.using(SQLDialect.POSTGRES).configuration());
+                    Configuration configuration = DSL.using(SQLDialect.POSTGRES).configuration();
+                    Object variant = async.getClass().getMethod("withConfiguration", Configuration.class).invoke(async, configuration);
+                    Object dao = variant.getClass().getMethod("dao").invoke(variant);
+                    assertSame(configuration, dao.getClass().getMethod("configuration").invoke(dao));
+                }
+
+                private static Object async(Configuration configuration) throws Exception {
+                    Class<?> asyncType = Class.forName("%s");
+                    Class<?> daoType = asyncType.getMethod("dao").getReturnType();
+                    Object dao = daoType.getConstructor(Configuration.class).newInstance(configuration);
+                    return asyncType.getConstructor(daoType).newInstance(dao);
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void asyncDaoKeepsOutOfThreadBoundTransactions() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "", "source = 'ddl'", "asyncDaos = true", SCRIPT);
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+
+        String async = TestProjects.generatedFiles(testProjectDir).stream()
+                .filter(path -> path.endsWith("AsyncDao.java") && !path.contains("/support/"))
+                .findFirst()
+                .orElseThrow()
+                .replaceFirst("\\.java$", "")
+                .replace('/', '.');
+        TestProjects.writeSource(testProjectDir, "src/test/java/AsyncDaoTest.java", ASYNC_DAO_TEST.formatted(async));
+
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "test").build().task(":test").getOutcome());
+    }
+}
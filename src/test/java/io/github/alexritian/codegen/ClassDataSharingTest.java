@@ -0,0 +1,107 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Generates with class data sharing, first with the JVM running Gradle and then with a java executable chosen by
+ * {@code javaExecSpec}, which gets an archive of its own. The JVM doesn't archive classes from directories, so the
+ * plugin under test is packaged into jars first.
+ *
+ * @author Too_young
+ */
+class ClassDataSharingTest {
+
+    @TempDir
+    File testProjectDir;
+
+    @TempDir
+    Path jdkDir;
+
+    @Test
+    void keysTheArchiveOnTheJavaExecutableOfTheGenerator() throws IOException {
+        // another path to the same JDK stands in for a toolchain
+        Path jdk = jdkDir.resolve("jdk");
+        try {
+            Files.createSymbolicLink(jdk, Path.of(System.getProperty("java.home")).toRealPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false, "Symbolic links are not supported");
+        }
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "generatorJvm {\nclassDataSharing = true\n}", "");
+        List<File> pluginClasspath = packagedPluginClasspath();
+        assertEquals("dumped", classDataSharing(runner(pluginClasspath).build()));
+        assertEquals(1, archives());
+        assertEquals("shared", classDataSharing(runner(pluginClasspath).build()));
+
+        Files.writeString(testProjectDir.toPath().resolve("build.gradle"), """
+                tasks.named('generateJooq') {
+                    javaExecSpec = { it.executable = '%s' }
+                }
+                """.formatted(jdk.resolve("bin/java").toString().replace("\\", "/")), StandardOpenOption.APPEND);
+        assertEquals("dumped", classDataSharing(runner(pluginClasspath).build()));
+        assertEquals(2, archives());
+    }
+
+    private GradleRunner runner(List<File> pluginClasspath) {
+        return TestProjects.runner(testProjectDir, "generateJooq", "--rerun-tasks").withPluginClasspath(pluginClasspath);
+    }
+
+    private List<File> packagedPluginClasspath() throws IOException {
+        Properties metadata = new Properties();
+        try (InputStream in = ClassDataSharingTest.class.getClassLoader().getResourceAsStream("plugin-under-test-metadata.properties")) {
+            assumeTrue(in != null, "The plugin under test metadata is not available");
+            metadata.load(in);
+        }
+        List<File> classpath = new ArrayList<>();
+        for (String path : metadata.getProperty("implementation-classpath").split(File.pathSeparator)) {
+            File file = new File(path);
+            classpath.add(file.isDirectory() ? jar(file.toPath(), jdkDir.resolve("plugin-" + classpath.size() + ".jar")) : file);
+        }
+        return classpath;
+    }
+
+    private static File jar(Path directory, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                out.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        return jar.toFile();
+    }
+
+    private String classDataSharing(BuildResult result) throws IOException {
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        String report = Files.readString(testProjectDir.toPath().resolve("build/reports/jooq-codegen/generateJooq.json"));
+        assertTrue(report.contains("\"classDataSharing\": "), report);
+        return report.contains("\"classDataSharing\": \"shared\"") ? "shared" : "dumped";
+    }
+
+    private long archives() throws IOException {
+        try (Stream<Path> files = Files.list(testProjectDir.toPath().resolve("build/jooq-cds"))) {
+            return files.filter(file -> file.toString().endsWith(".jsa")).count();
+        }
+    }
+}
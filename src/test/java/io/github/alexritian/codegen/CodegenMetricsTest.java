@@ -0,0 +1,124 @@
+package io.github.alexritian.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class CodegenMetricsTest {
+
+    @TempDir
+    File reportDir;
+
+    @Test
+    void writesTheReportAsJson() throws IOException {
+        CodegenMetrics metrics = new CodegenMetrics(":generateJooq");
+        metrics.put("execution", GeneratorExecution.JAVA_EXEC);
+        metrics.migration("1", "V1__init.sql", 12);
+        metrics.schema(2, 9);
+
+        assertEquals("""
+                {
+                  "task": ":generateJooq",
+                  "phasesMillis": {},
+                  "migrations": [
+                    {
+                      "version": "1",
+                      "script": "V1__init.sql",
+                      "millis": 12
+                    }
+                  ],
+                  "schema": {
+                    "tables": 2,
+                    "columns": 9
+                  },
+                  "output": {},
+                  "generator": {},
+                  "execution": "JAVA_EXEC"
+                }
+                """, write(metrics));
+    }
+
+    @Test
+    void addsUpTheTimesOfAPhase() throws IOException {
+        CodegenMetrics metrics = new CodegenMetrics(":generateJooq");
+        metrics.time("migrations", () -> sleep(20));
+        assertEquals(42, metrics.time("migrations", () -> {
+            sleep(20);
+            return 42;
+        }));
+
+        String report = write(metrics);
+        long millis = Long.parseLong(report.replaceAll("(?s).*\"migrations\": (\\d+).*", "$1"));
+        assertTrue(millis >= 40, report);
+    }
+
+    @Test
+    void timesFailedPhases() throws IOException {
+        CodegenMetrics metrics = new CodegenMetrics(":generateJooq");
+        assertThrows(IllegalStateException.class, () -> metrics.time("containerAcquisition", CodegenMetricsTest::failToStartContainer));
+        // the report of a failed run still shows how long it took to fail
+        assertTrue(write(metrics).contains("\"containerAcquisition\": "));
+    }
+
+    @Test
+    void addsUpTheStatisticsOfTheGeneratorRunsExceptForTheirPeaks() throws IOException {
+        CodegenMetrics metrics = new CodegenMetrics(":generateJooq");
+        metrics.generator(statistics("shard-0", 300, 4, 50, 20));
+        metrics.generator(statistics("shard-1", 200, 6, 70, 30));
+        metrics.generator(new File(reportDir, "missing.properties"));
+
+        assertEquals(300L, metrics.getGenerator().get(GeneratorStatistics.PEAK_HEAP_BYTES));
+        assertEquals(10L, metrics.getGenerator().get(GeneratorStatistics.GC_COUNT));
+        assertEquals(120L, metrics.getGenerator().get(GeneratorStatistics.GC_TIME_MILLIS));
+        assertEquals(30L, metrics.getGenerator().get(GeneratorStatistics.MAX_GC_PAUSE_MILLIS));
+    }
+
+    @Test
+    void escapesStrings() throws IOException {
+        CodegenMetrics metrics = new CodegenMetrics(":generate\"Quoted\"Jooq");
+        metrics.migration("1", "C:\\db\\V1__init.sql", 1);
+        metrics.put("problem", "line one\nline\ttwo\u0001");
+
+        String report = write(metrics);
+        assertTrue(report.contains("\"task\": \":generate\\\"Quoted\\\"Jooq\""), report);
+        assertTrue(report.contains("\"script\": \"C:\\\\db\\\\V1__init.sql\""), report);
+        assertTrue(report.contains("\"problem\": \"line one\\nline\\ttwo\\u0001\""), report);
+    }
+
+    private String write(CodegenMetrics metrics) throws IOException {
+        File report = new File(reportDir, "reports/generateJooq.json");
+        metrics.write(report);
+        return Files.readString(report.toPath());
+    }
+
+    private File statistics(String name, long peakHeapBytes, long gcCount, long gcTimeMillis, long maxGcPauseMillis) throws IOException {
+        File file = new File(reportDir, name + ".properties");
+        Files.writeString(file.toPath(), GeneratorStatistics.PEAK_HEAP_BYTES + "=" + peakHeapBytes + "\n"
+                + GeneratorStatistics.GC_COUNT + "=" + gcCount + "\n"
+                + GeneratorStatistics.GC_TIME_MILLIS + "=" + gcTimeMillis + "\n"
+                + GeneratorStatistics.MAX_GC_PAUSE_MILLIS + "=" + maxGcPauseMillis + "\n");
+        return file;
+    }
+
+    private static void failToStartContainer() {
+        throw new IllegalStateException("Docker is not available");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
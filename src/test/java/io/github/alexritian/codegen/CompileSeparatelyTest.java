@@ -0,0 +1,60 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class CompileSeparatelyTest {
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void compilesTheGeneratedSourcesIntoAJarOfTheirOwn() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "", "compileSeparately = true");
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+        String dao = TestProjects.generatedFiles(testProjectDir).stream()
+                .filter(path -> path.endsWith("Dao.java"))
+                .findFirst()
+                .orElseThrow()
+                .replaceFirst("\\.java$", "");
+
+        // the hand-written code compiles against the jar
+        writeApplication(dao, "");
+        BuildResult result = TestProjects.runner(testProjectDir, "compileJava").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":compileJooq").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, result.task(":jooqJar").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, result.task(":compileJava").getOutcome());
+        try (JarFile jar = new JarFile(new File(testProjectDir, "build/libs/codegen-test-jooq.jar"))) {
+            assertNotNull(jar.getEntry(dao + ".class"));
+        }
+        assertFalse(new File(testProjectDir, "build/classes/java/main/" + dao + ".class").exists());
+        assertTrue(new File(testProjectDir, "build/classes/java/main/App.class").exists());
+
+        // a change of the hand-written code doesn't compile the generated sources again
+        writeApplication(dao, "int changed;");
+        result = TestProjects.runner(testProjectDir, "compileJava").build();
+        assertEquals(TaskOutcome.UP_TO_DATE, result.task(":compileJooq").getOutcome());
+        assertEquals(TaskOutcome.UP_TO_DATE, result.task(":jooqJar").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, result.task(":compileJava").getOutcome());
+    }
+
+    private void writeApplication(String dao, String body) throws IOException {
+        TestProjects.writeSource(testProjectDir, "src/main/java/App.java",
+                "public class App {\n    Class<?> dao = " + dao.replace('/', '.') + ".class;\n    " + body + "\n}\n");
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class ConfigurationCacheTest {
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void reusesTheConfigurationCacheEntry() throws IOException {
+        TestProjects.writeBuild(testProjectDir, "prewarmContainer = true", "");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+
+        BuildResult first = TestProjects.runner(testProjectDir, "generateJooq", "--configuration-cache").build();
+        assertEquals(TaskOutcome.SUCCESS, first.task(":generateJooq").getOutcome());
+        // the container is started by the generation itself, not by a task of its own
+        assertNull(first.task(":prewarmJooqContainer"));
+        assertTrue(first.getOutput().contains("Configuration cache entry stored."), first.getOutput());
+
+        BuildResult second = TestProjects.runner(testProjectDir, "generateJooq", "--configuration-cache").build();
+        assertTrue(second.getOutput().contains("Reusing configuration cache."), second.getOutput());
+        assertEquals(TaskOutcome.UP_TO_DATE, second.task(":generateJooq").getOutcome());
+        assertTrue(TestProjects.generatedFiles(testProjectDir).stream().anyMatch(path -> path.endsWith("MajorEvents.java")));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the server options the container profile passes to Postgres.
+ *
+ * @author Too_young
+ */
+class ContainerProfileTest {
+    private static final String PRINT_PROFILE = """
+            tasks.register('printContainerProfile') {
+                def image = jooq.container.image
+                def settings = jooq.container.serverSettings
+                doLast {
+                    println "image: ${image.get()}"
+                    println "settings: ${settings.get()}"
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void tradesDurabilityForSpeedByDefault() throws IOException {
+        String output = printProfile("");
+        assertTrue(output.contains("image: postgres:16.4"), output);
+        assertTrue(output.contains("settings: [fsync=off, synchronous_commit=off, full_page_writes=off, shared_buffers=256MB, work_mem=64MB, maintenance_work_mem=256MB]"), output);
+    }
+
+    @Test
+    void passesTheTunedSettings() throws IOException {
+        String output = printProfile("""
+                container {
+                    image = 'postgres:17.0'
+                    fsync = true
+                    sharedBuffers = '1GB'
+                    workMem = '16MB'
+                }
+                """);
+        assertTrue(output.contains("image: postgres:17.0"), output);
+        assertTrue(output.contains("settings: [fsync=on, synchronous_commit=off, full_page_writes=off, shared_buffers=1GB, work_mem=16MB, maintenance_work_mem=256MB]"), output);
+    }
+
+    @Test
+    void readsTheDeprecatedContainerImage() throws IOException {
+        assertTrue(printProfile("containerImage = 'postgres:15.8'").contains("image: postgres:15.8"));
+    }
+
+    private String printProfile(String jooq) throws IOException {
+        TestProjects.writeBuild(testProjectDir, jooq, "source = 'ddl'", "", PRINT_PROFILE);
+        BuildResult result = TestProjects.runner(testProjectDir, "printContainerProfile").build();
+        return result.getOutput();
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compiles the writer generated with {@code copyWriters} and copies rows with it into Postgres, which decodes every
+ * binary value, by a test of the generated project. The tables are named like the base classes of the writers and
+ * asynchronous DAOs.
+ *
+ * @author Too_young
+ */
+class CopyWritersTest {
+    private static final String TABLES = """
+            CREATE TYPE mood AS ENUM ('happy', 'sad');
+            CREATE TABLE "binary" (
+                id int4 GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                amount numeric,
+                mood mood,
+                doubled numeric GENERATED ALWAYS AS (amount * 2) STORED
+            );
+            CREATE TABLE async (
+                id int4 PRIMARY KEY
+            );
+            """;
+
+    private static final String SCRIPT = """
+            dependencies {
+                implementation 'org.postgresql:postgresql:42.7.4'
+                testImplementation platform('org.junit:junit-bom:5.10.3')
+                testImplementation 'org.junit.jupiter:junit-jupiter'
+                testRuntimeOnly 'org.junit.platform:junit-platform-launcher'
+                testImplementation 'org.testcontainers:postgresql:1.20.1'
+            }
+
+            test {
+                useJUnitPlatform()
+            }
+            """;
+
+    // the writer is looked up by its name, and the record is filled through its fields, so the test doesn't depend on
+    // the names of the generated members
+    private static final String WRITER_TEST = """
+            import org.jooq.*;
+            import org.junit.jupiter.api.Test;
+            import org.testcontainers.containers.PostgreSQLContainer;
+
+            import java.lang.reflect.Method;
+            import java.math.BigDecimal;
+            import java.nio.file.Files;
+            import java.nio.file.Path;
+            import java.sql.Connection;
+            import java.sql.DriverManager;
+            import java.sql.ResultSet;
+            import java.util.ArrayList;
+            import java.util.Arrays;
+            import java.util.List;
+
+            import static org.junit.jupiter.api.Assertions.*;
+
+            class BinaryCopyWriterTest {
+                private static final List<String> AMOUNTS = List.of("0", "1", "-1.5", "1.50", "12345.6789", "0.0001", "0.00001",
+                        "-99999.99999", "100000000000000000000", "1E+3", "3.14159265358979323846");
+
+                @Test
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                void copiesEveryValue() throws Exception {
+                    try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.4")) {
+                        postgres.start();
+                        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+                            connection.createStatement().execute(Files.readString(Path.of("src/main/resources/db/migration/V1__init.sql")));
+                            Class<?> writerType = Class.forName("%s");
+                            Method write = Arrays.stream(writerType.getMethods())
+                                    .filter(method -> method.getName().equals("write") && TableRecord.class.isAssignableFrom(method.getParameterTypes()[0]))
+                                    .findFirst()
+                                    .orElseThrow();
+                            Class<?> recordType = write.getParameterTypes()[0];
+                            Object[] moods = ((TableRecord) recordType.getConstructor().newInstance()).field("mood").getType().getEnumConstants();
+
+                            List<String> amounts = new ArrayList<>(AMOUNTS);
+                            amounts.add(null);
+                            try (AutoCloseable writer = (AutoCloseable) writerType.getConstructor(Connection.class).newInstance(connection)) {
+                                for (int i = 0; i < amounts.size(); i++) {
+                                    TableRecord record = (TableRecord) recordType.getConstructor().newInstance();
+                                    record.set(record.field("amount"), amounts.get(i) == null ? null : new BigDecimal(amounts.get(i)));
+                                    record.set(record.field("mood"), amounts.get(i) == null ? null : moods[i %% moods.length]);
+                                    write.invoke(writer, record);
+                                }
+                                assertEquals((long) amounts.size(), writerType.getMethod("finish").invoke(writer));
+                            }
+
+                            try (ResultSet rows = connection.createStatement().executeQuery("select amount, doubled, mood::text from \\"binary\\" order by id")) {
+                                for (int i = 0; i < amounts.size(); i++) {
+                                    assertTrue(rows.next());
+                                    if (amounts.get(i) == null) {
+                                        assertNull(rows.getBigDecimal(1));
+                                        assertNull(rows.getString(3));
+                                        continue;
+                                    }
+                                    BigDecimal amount = new BigDecimal(amounts.get(i));
+                                    // a negative scale is written as the integer it stands for
+                                    assertEquals(amount.setScale(Math.max(0, amount.scale())), rows.getBigDecimal(1), amounts.get(i));
+                                    assertEquals(0, amount.multiply(BigDecimal.TWO).compareTo(rows.getBigDecimal(2)), amounts.get(i));
+                                    assertEquals(((EnumType) moods[i %% moods.length]).getLiteral(), rows.getString(3));
+                                }
+                                assertFalse(rows.next());
+                            }
+                        }
+                    }
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void generatedWriterCopiesIntoPostgres() throws IOException {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TABLES);
+        TestProjects.writeBuild(testProjectDir, "", "", "copyWriters = true\nasyncDaos = true", SCRIPT);
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+
+        String writer = TestProjects.generatedFiles(testProjectDir).stream()
+                .filter(path -> path.endsWith("/writers/BinaryCopyWriter.java"))
+                .findFirst()
+                .orElseThrow()
+                .replaceFirst("\\.java$", "")
+                .replace('/', '.');
+        TestProjects.writeSource(testProjectDir, "src/test/java/BinaryCopyWriterTest.java", WRITER_TEST.formatted(writer));
+
+        BuildResult result = TestProjects.runner(testProjectDir, "test").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":test").getOutcome());
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the generations of two configurations in parallel on the same container. Each of them migrates a database of its
+ * own, so both apply every script.
+ *
+ * @author Too_young
+ */
+class DatabasePerTaskTest {
+    private static final String TEST_CONFIGURATION = """
+            jooq {
+                configurations {
+                    test {
+                        database {
+                            schema = 'public'
+                        }
+                        output {
+                            packageName = 'org.moonlit.codegen.test'
+                            directory = 'build/generated/source/jooq-test'
+                        }
+                    }
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void migratesADatabaseOfItsOwnForEveryTask() throws IOException {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "container { poolSize = 1 }", "source = 'container'", "", TEST_CONFIGURATION);
+
+        BuildResult result = TestProjects.runner(testProjectDir, "generateJooq", "generateTestJooq", "--parallel").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateTestJooq").getOutcome());
+        // a shared database would have been migrated already for the second task
+        for (String task : new String[]{"generateJooq", "generateTestJooq"}) {
+            String report = Files.readString(testProjectDir.toPath().resolve("build/reports/jooq-codegen/" + task + ".json"));
+            assertTrue(report.contains("V1__init.sql\""), report);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Interprets a migration history with a statement jOOQ can't read, which only the database container can migrate.
+ *
+ * @author Too_young
+ */
+class DdlFallbackTest {
+    private static final String DYNAMIC_AUTHOR = """
+            DO $$
+            BEGIN
+                EXECUTE 'CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL)';
+            END
+            $$;
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void failsWithTheScriptJooqCantInterpret() throws IOException {
+        BuildResult result = generate("source = 'ddl'").buildAndFail();
+        assertTrue(result.getOutput().contains("The migration scripts contain statements that jOOQ can't interpret:"), result.getOutput());
+        assertTrue(result.getOutput().contains("V2__author.sql"), result.getOutput());
+        assertFalse(result.getOutput().contains("Falling back to the database container."), result.getOutput());
+    }
+
+    @Test
+    void fallsBackToTheContainer() throws IOException {
+        // without Docker the fallback fails on starting the container
+        BuildResult result = generate("source = 'ddl'\nfallbackToContainer = true").run();
+        assertTrue(result.getOutput().contains("V2__author.sql"), result.getOutput());
+        assertTrue(result.getOutput().contains("Falling back to the database container."), result.getOutput());
+        if (DockerClientFactory.instance().isDockerAvailable()) {
+            assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+            assertTrue(TestProjects.generatedFiles(testProjectDir).stream().anyMatch(path -> path.endsWith("/tables/Author.java")));
+        }
+    }
+
+    @Test
+    void doesNotFallBackWithoutTheContainer() throws IOException {
+        BuildResult result = generate("useContainer = false", "source = 'ddl'\nfallbackToContainer = true").buildAndFail();
+        assertTrue(result.getOutput().contains("The migration scripts contain statements that jOOQ can't interpret:"), result.getOutput());
+        assertFalse(result.getOutput().contains("Falling back to the database container."), result.getOutput());
+    }
+
+    private GradleRunner generate(String database) throws IOException {
+        return generate("", database);
+    }
+
+    private GradleRunner generate(String jooq, String database) throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeMigration(testProjectDir, "V2__author.sql", DYNAMIC_AUTHOR);
+        TestProjects.writeBuild(testProjectDir, jooq, database, "", "");
+        return TestProjects.runner(testProjectDir, "generateJooq");
+    }
+}
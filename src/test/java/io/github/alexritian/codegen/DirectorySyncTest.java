@@ -0,0 +1,104 @@
+package io.github.alexritian.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class DirectorySyncTest {
+    private static final FileTime OLD = FileTime.fromMillis(1_000_000_000_000L);
+
+    @TempDir
+    Path source;
+    @TempDir
+    Path target;
+
+    @Test
+    void onlyTouchesTheFilesThatDiffer() throws IOException {
+        write(source, "a/Same.java", "same");
+        write(source, "a/Changed.java", "new");
+        write(source, "b/Added.java", "added");
+        write(target, "a/Same.java", "same");
+        write(target, "a/Changed.java", "old");
+        write(target, "c/Removed.java", "removed");
+        Files.setLastModifiedTime(target.resolve("a/Same.java"), OLD);
+
+        DirectorySync.Result result = DirectorySync.sync(source.toFile(), target.toFile());
+
+        assertEquals(3, result.getFiles());
+        assertEquals(12, result.getBytes());
+        assertEquals(1, result.getAdded());
+        assertEquals(1, result.getChanged());
+        assertEquals(1, result.getRemoved());
+        // the unchanged file keeps its timestamp, so it isn't recompiled
+        assertEquals(OLD, Files.getLastModifiedTime(target.resolve("a/Same.java")));
+        assertEquals("new", read(target, "a/Changed.java"));
+        assertEquals("added", read(target, "b/Added.java"));
+        assertFalse(Files.exists(target.resolve("c")));
+    }
+
+    @Test
+    void detectsChangesOfTheSameSize() throws IOException {
+        write(source, "Changed.java", "abc");
+        write(target, "Changed.java", "abd");
+
+        assertEquals(1, DirectorySync.sync(source.toFile(), target.toFile()).getChanged());
+        assertEquals("abc", read(target, "Changed.java"));
+    }
+
+    @Test
+    void createsAMissingTarget() throws IOException {
+        write(source, "a/Added.java", "added");
+        File missing = target.resolve("missing").toFile();
+
+        assertEquals(1, DirectorySync.sync(source.toFile(), missing).getAdded());
+        assertEquals("added", read(missing.toPath(), "a/Added.java"));
+    }
+
+    @Test
+    void keepsTheRetainedFiles() throws IOException {
+        write(source, "a/Changed.java", "changed");
+        write(target, "a/Retained.java", "retained");
+        write(target, "a/Removed.java", "removed");
+
+        DirectorySync.Result result = DirectorySync.sync(source.toFile(), target.toFile(), Set.of("a/Retained.java"));
+
+        assertEquals(1, result.getRemoved());
+        assertTrue(Files.exists(target.resolve("a/Retained.java")));
+        assertFalse(Files.exists(target.resolve("a/Removed.java")));
+    }
+
+    @Test
+    void mergesOnlyTheMissingFiles() throws IOException {
+        write(source, "a/First.java", "first shard");
+        write(source, "b/Second.java", "second shard");
+        write(target, "a/First.java", "first");
+
+        assertEquals(1, DirectorySync.merge(source.toFile(), target.toFile()));
+        assertEquals("first", read(target, "a/First.java"));
+        assertEquals("second shard", read(target, "b/Second.java"));
+    }
+
+    private static void write(Path root, String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path root, String path) throws IOException {
+        return Files.readString(root.resolve(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.alexritian.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class GeneratorJvmOptionsTest {
+
+    @Test
+    void estimatesSmallSchemasWithSmallHeaps() {
+        assertEquals(512, GeneratorJvmOptions.estimateMegabytes(10, 120, 1, 8192));
+    }
+
+    @Test
+    void estimatesMoreThanFourGigabytesForFortyThousandColumns() {
+        assertTrue(GeneratorJvmOptions.estimateMegabytes(4_000, 40_000, 1, 8192) > 4096);
+    }
+
+    @Test
+    void sharesTheGeneratedClassesAcrossShards() {
+        assertEquals(4096, GeneratorJvmOptions.estimateMegabytes(4_000, 0, 1, 8192));
+        assertEquals(1024, GeneratorJvmOptions.estimateMegabytes(4_000, 0, 4, 8192));
+    }
+
+    @Test
+    void capsTheEstimateAtTheLimit() {
+        assertEquals(2048, GeneratorJvmOptions.estimateMegabytes(4_000, 40_000, 1, 2048));
+    }
+
+    @Test
+    void neverGoesBelowTheJvmDefault() {
+        assertEquals(4096, GeneratorJvmOptions.heapMegabytes(10, 120, 1, 8192, 4096));
+        // the limit only caps the estimate, not the heap the JVM would choose anyway
+        assertEquals(16384, GeneratorJvmOptions.heapMegabytes(4_000, 40_000, 1, 8192, 16384));
+        assertEquals(8192, GeneratorJvmOptions.heapMegabytes(4_000, 40_000, 1, 8192, 1024));
+    }
+
+    @Test
+    void defaultHeapIsAQuarterOfTheMemory() {
+        assertTrue(GeneratorJvmOptions.defaultHeapMegabytes() > 0);
+    }
+
+    @Test
+    void parsesHeapSizes() {
+        assertEquals(512, GeneratorJvmOptions.parseMegabytes("512m"));
+        assertEquals(8192, GeneratorJvmOptions.parseMegabytes("8g"));
+        assertEquals(1024, GeneratorJvmOptions.parseMegabytes(" 1G "));
+        assertEquals(2, GeneratorJvmOptions.parseMegabytes("2048k"));
+        assertEquals(1024 * 1024, GeneratorJvmOptions.parseMegabytes("1t"));
+        assertEquals(1024, GeneratorJvmOptions.parseMegabytes("1073741824"));
+    }
+
+    @Test
+    void tunesSmallGenerations() {
+        assertEquals(List.of("-XX:+UseParallelGC", "-XX:TieredStopAtLevel=1"), GeneratorJvmOptions.tuningArgs(null, 512));
+        assertEquals(List.of("-XX:+UseParallelGC"), GeneratorJvmOptions.tuningArgs(List.of(), 1024));
+    }
+
+    @Test
+    void keepsTheConfiguredCollectorAndCompiler() {
+        assertEquals(List.of("-XX:TieredStopAtLevel=1"), GeneratorJvmOptions.tuningArgs(List.of("-XX:+UseG1GC"), 256));
+        assertEquals(List.of("-XX:+UseParallelGC"), GeneratorJvmOptions.tuningArgs(List.of("-XX:-TieredCompilation"), 256));
+        assertEquals(List.of(), GeneratorJvmOptions.tuningArgs(List.of("-XX:+UseSerialGC", "-XX:TieredStopAtLevel=4"), 256));
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class IncrementalGenerationTest {
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL);\n";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void togglingAFeatureRegeneratesAllTables() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS + AUTHOR);
+
+        TestProjects.writeBuild(testProjectDir, "", "incremental = true");
+        assertEquals(TaskOutcome.SUCCESS, compile().task(":generateJooq").getOutcome());
+        assertEquals(List.of(), mappers());
+
+        // the retained DAOs must not miss the mappers of a feature enabled since the last run
+        TestProjects.writeBuild(testProjectDir, "", "incremental = true\nrecordMappers = true");
+        assertEquals(TaskOutcome.SUCCESS, compile().task(":generateJooq").getOutcome());
+        assertEquals(2, mappers().size(), mappers().toString());
+
+        // nor refer to the mappers of a feature disabled since the last run
+        TestProjects.writeBuild(testProjectDir, "", "incremental = true");
+        assertEquals(TaskOutcome.SUCCESS, compile().task(":generateJooq").getOutcome());
+        assertEquals(List.of(), mappers());
+    }
+
+    private BuildResult compile() {
+        BuildResult result = TestProjects.runner(testProjectDir, "compileJava").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":compileJava").getOutcome());
+        return result;
+    }
+
+    private List<String> mappers() throws IOException {
+        return TestProjects.generatedFiles(testProjectDir).stream().filter(path -> path.contains("/mappers/")).toList();
+    }
+}
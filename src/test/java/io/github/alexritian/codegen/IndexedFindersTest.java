@@ -0,0 +1,65 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class IndexedFindersTest {
+    private static final String ARTICLE = """
+            CREATE TABLE article (
+                id int4 NOT NULL,
+                slug varchar(50) NOT NULL,
+                author varchar(50) NOT NULL,
+                title varchar(50) NOT NULL,
+                status varchar(10) NOT NULL,
+                code varchar(10) NULL,
+                CONSTRAINT article_pk PRIMARY KEY (id),
+                CONSTRAINT article_slug_key UNIQUE (slug),
+                CONSTRAINT article_code_key UNIQUE (code)
+            );
+            CREATE INDEX article_author_title_idx ON article (author, title);
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void daoOnlyHasTheFindersOfItsIndexes() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", ARTICLE);
+        TestProjects.writeBuild(testProjectDir, "", "indexedFinders = true");
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "compileJava").build().task(":compileJava").getOutcome());
+
+        String dao = Files.readString(testProjectDir.toPath().resolve("build/generated/source/jooq").resolve(
+                TestProjects.generatedFiles(testProjectDir).stream().filter(path -> path.endsWith("Dao.java")).findFirst().orElseThrow()),
+                StandardCharsets.UTF_8);
+        // the leading columns of the primary key, the unique keys and the index
+        for (String finder : new String[]{"fetchById(", "fetchBySlug(", "fetchByCode(", "fetchByAuthor(", "fetchRangeOfAuthor("}) {
+            assertTrue(dao.contains(finder), finder);
+        }
+        for (String finder : new String[]{"fetchByTitle(", "fetchRangeOfTitle(", "fetchByStatus(", "fetchRangeOfStatus("}) {
+            assertFalse(dao.contains(finder), finder);
+        }
+        assertTrue(dao.contains("fetchByAuthorAndTitle("));
+        assertTrue(dao.contains("fetchPageAfterId("));
+        assertTrue(dao.contains("fetchPageAfterSlug("));
+        // many rows can have a null code
+        assertFalse(dao.contains("fetchPageAfterCode("));
+
+        String report = Files.readString(testProjectDir.toPath().resolve("build/reports/jooq-codegen/generateJooq.json"));
+        String omitted = report.substring(report.indexOf("\"omittedFinderColumns\""), report.indexOf("]", report.indexOf("\"omittedFinderColumns\"")));
+        assertTrue(omitted.contains("article.title\"") && omitted.contains("article.status\""), omitted);
+        assertFalse(omitted.contains("article.author\""), omitted);
+    }
+}
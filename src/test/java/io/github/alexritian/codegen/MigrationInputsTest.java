@@ -0,0 +1,56 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the migration scripts and the container image decide whether the generation is up-to-date.
+ *
+ * @author Too_young
+ */
+class MigrationInputsTest {
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL);\n";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void isUpToDateUntilAMigrationScriptChanges() throws IOException {
+        TestProjects.writeBuild(testProjectDir, "", "");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        assertEquals(TaskOutcome.SUCCESS, generate());
+        assertEquals(TaskOutcome.UP_TO_DATE, generate());
+
+        // a checkout with other line endings doesn't change the schema
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS.replace("\n", "\r\n"));
+        assertEquals(TaskOutcome.UP_TO_DATE, generate());
+
+        TestProjects.writeMigration(testProjectDir, "V2__author.sql", AUTHOR);
+        assertEquals(TaskOutcome.SUCCESS, generate());
+        assertEquals(TaskOutcome.UP_TO_DATE, generate());
+
+        TestProjects.writeMigration(testProjectDir, "V2__author.sql", AUTHOR.replace("varchar(50)", "varchar(100)"));
+        assertEquals(TaskOutcome.SUCCESS, generate());
+    }
+
+    @Test
+    void reRunsWhenTheContainerImageChanges() throws IOException {
+        TestProjects.writeBuild(testProjectDir, "container { image = 'postgres:16.4' }", "");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        assertEquals(TaskOutcome.SUCCESS, generate());
+
+        TestProjects.writeBuild(testProjectDir, "container { image = 'postgres:17.0' }", "");
+        assertEquals(TaskOutcome.SUCCESS, generate());
+        assertEquals(TaskOutcome.UP_TO_DATE, generate());
+    }
+
+    private TaskOutcome generate() {
+        return TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Adds a migration script with a version older than the newest one between two builds.
+ *
+ * @author Too_young
+ */
+class MigrationValidationTest {
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY);\n";
+    private static final String BOOK = "CREATE TABLE book (id int PRIMARY KEY);\n";
+    private static final String OUT_OF_ORDER = "V2__book.sql: version 2 is older than the applied version 3";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void reportsAScriptAddedOutOfOrderAfterAClean() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeMigration(testProjectDir, "V3__author.sql", AUTHOR);
+        TestProjects.writeBuild(testProjectDir, "", "");
+        assertFalse(TestProjects.runner(testProjectDir, "generateJooq").build().getOutput().contains("may be invalid"));
+
+        TestProjects.writeMigration(testProjectDir, "V2__book.sql", BOOK);
+        BuildResult result = TestProjects.runner(testProjectDir, "clean", "generateJooq").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        assertTrue(result.getOutput().contains(OUT_OF_ORDER), result.getOutput());
+
+        // the script is part of the history now
+        result = TestProjects.runner(testProjectDir, "generateJooq", "--rerun-tasks").build();
+        assertFalse(result.getOutput().contains(OUT_OF_ORDER), result.getOutput());
+    }
+
+    @Test
+    void failsOnAScriptAddedOutOfOrderWhenStrict() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeMigration(testProjectDir, "V3__author.sql", AUTHOR);
+        TestProjects.writeBuild(testProjectDir, "", "source = 'ddl'\nmigrationValidation = 'strict'", "", "");
+        TestProjects.runner(testProjectDir, "generateJooq").build();
+
+        TestProjects.writeMigration(testProjectDir, "V2__book.sql", BOOK);
+        BuildResult result = TestProjects.runner(testProjectDir, "generateJooq").buildAndFail();
+        assertTrue(result.getOutput().contains(OUT_OF_ORDER), result.getOutput());
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates two schemas, one of them referencing the other, and generates both in one configuration.
+ *
+ * @author Too_young
+ */
+class MultiSchemaTest {
+    private static final String SCHEMAS = """
+            CREATE SCHEMA crm;
+            CREATE TABLE crm.customer (id int PRIMARY KEY, name varchar(50) NOT NULL);
+            CREATE TABLE invoice (id int PRIMARY KEY, customer_id int NOT NULL REFERENCES crm.customer (id));
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void generatesEverySchemaIntoThePackageOfItsOutputSchema() throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", SCHEMAS);
+        TestProjects.writeBuild(testProjectDir, "", "source = 'ddl'\nschemas = ['billing', 'crm']\noutputSchemas = [crm: 'customers']", "", "");
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+
+        List<String> files = TestProjects.generatedFiles(testProjectDir);
+        // the unqualified table is created in the first schema
+        assertTrue(files.contains("org/moonlit/codegen/billing/tables/Invoice.java"), files.toString());
+        assertTrue(files.contains("org/moonlit/codegen/customers/tables/Customer.java"), files.toString());
+
+        String keys = Files.readString(testProjectDir.toPath().resolve("build/generated/source/jooq/org/moonlit/codegen/billing/Keys.java"));
+        assertTrue(keys.contains("org.moonlit.codegen.customers.tables.Customer"), keys);
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compiles the DAO generated with {@code preRenderedSql} and runs it against Postgres, by a test of the generated project.
+ *
+ * @author Too_young
+ */
+class PreRenderedSqlTest {
+    private static final String ITEM = """
+            CREATE TABLE item (
+                id serial4 PRIMARY KEY,
+                name varchar(20) NOT NULL,
+                price int4 NOT NULL,
+                total int4 GENERATED ALWAYS AS (price * 2) STORED
+            );
+            """;
+
+    private static final String SCRIPT = """
+            dependencies {
+                testImplementation platform('org.junit:junit-bom:5.10.3')
+                testImplementation 'org.junit.jupiter:junit-jupiter'
+                testRuntimeOnly 'org.junit.platform:junit-platform-launcher'
+                testImplementation 'org.testcontainers:postgresql:1.20.1'
+                testRuntimeOnly 'org.postgresql:postgresql:42.7.4'
+            }
+
+            test {
+                useJUnitPlatform()
+            }
+            """;
+
+    // the DAO is looked up by its name, and the POJOs are converted through records, so the test doesn't depend on
+    // the names of the generated members
+    private static final String DAO_TEST = """
+            import org.jooq.*;
+            import org.jooq.impl.*;
+            import org.junit.jupiter.api.Test;
+            import org.testcontainers.containers.PostgreSQLContainer;
+
+            import java.nio.file.Files;
+            import java.nio.file.Path;
+            import java.sql.Connection;
+            import java.sql.DriverManager;
+            import java.util.ArrayList;
+            import java.util.List;
+            import java.util.concurrent.atomic.AtomicInteger;
+
+            import static org.junit.jupiter.api.Assertions.*;
+
+            class ItemDaoTest {
+
+                @Test
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                void runsTheGeneratedDao() throws Exception {
+                    try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.4")) {
+                        postgres.start();
+                        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())) {
+                            connection.createStatement().execute(Files.readString(Path.of("src/main/resources/db/migration/V1__init.sql")));
+                            List<String> statements = new ArrayList<>();
+                            Configuration configuration = new DefaultConfiguration()
+                                    .set(connection)
+                                    .set(SQLDialect.POSTGRES)
+                                    .set(new DefaultExecuteListenerProvider(new ExecuteListener() {
+                                        @Override
+                                        public void executeStart(ExecuteContext ctx) {
+                                            statements.add(ctx.sql());
+                                        }
+                                    }));
+                            DAOImpl dao = dao(configuration);
+                            Table<?> table = dao.getTable();
+                            Field<Integer> id = (Field<Integer>) table.field("id");
+                            Field<Integer> price = (Field<Integer>) table.field("price");
+                            Field<Integer> total = (Field<Integer>) table.field("total");
+                            DSLContext ctx = DSL.using(configuration);
+
+                            // the computed column is not bound, and its value is read back
+                            Object item = item(ctx, dao, "first", 2);
+                            dao.insert(item);
+                            TableRecord inserted = record(ctx, table, item);
+                            assertEquals(4, inserted.get(total));
+
+                            inserted.set(price, 3);
+                            dao.update(inserted.into(dao.getType()));
+                            assertEquals(6, record(ctx, table, dao.findById(inserted.get(id))).get(total));
+
+                            // unqualified rendering falls back to jOOQ
+                            statements.clear();
+                            dao(configuration.derive(new Settings().withRenderSchema(false))).insert(item(ctx, dao, "second", 5));
+                            assertFalse(statements.isEmpty());
+                            assertTrue(statements.stream().noneMatch(sql -> sql.contains("\\"public\\"")), statements.toString());
+
+                            // and so do record listeners, which must be called
+                            AtomicInteger inserts = new AtomicInteger();
+                            dao(configuration.derive(new DefaultRecordListenerProvider(new RecordListener() {
+                                @Override
+                                public void insertStart(RecordContext ctx) {
+                                    inserts.incrementAndGet();
+                                }
+                            }))).insert(item(ctx, dao, "third", 7));
+                            assertEquals(1, inserts.get());
+
+                            assertEquals(3, dao.count());
+                        }
+                    }
+                }
+
+                @SuppressWarnings("rawtypes")
+                private static DAOImpl dao(Configuration configuration) throws Exception {
+                    return (DAOImpl) Class.forName("%s").getConstructor(Configuration.class).newInstance(configuration);
+                }
+
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                private static Object item(DSLContext ctx, DAOImpl dao, String name, int price) {
+                    Record record = ctx.newRecord(dao.getTable());
+                    record.set((Field<String>) dao.getTable().field("name"), name);
+                    record.set((Field<Integer>) dao.getTable().field("price"), price);
+                    return record.into(dao.getType());
+                }
+
+                @SuppressWarnings({"rawtypes", "unchecked"})
+                private static TableRecord record(DSLContext ctx, Table table, Object pojo) {
+                    return (TableRecord) ctx.newRecord(table, pojo);
+                }
+            }
+            """;
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void generatedDaoRunsAgainstPostgres() throws IOException {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", ITEM);
+        TestProjects.writeBuild(testProjectDir, "", "", "preRenderedSql = true", SCRIPT);
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+
+        String dao = TestProjects.generatedFiles(testProjectDir).stream()
+                .filter(path -> path.endsWith("Dao.java") && !path.endsWith("AsyncDao.java"))
+                .findFirst()
+                .orElseThrow()
+                .replaceFirst("\\.java$", "")
+                .replace('/', '.');
+        TestProjects.writeSource(testProjectDir, "src/test/java/ItemDaoTest.java", DAO_TEST.formatted(dao));
+
+        BuildResult result = TestProjects.runner(testProjectDir, "test").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":test").getOutcome());
+    }
+}
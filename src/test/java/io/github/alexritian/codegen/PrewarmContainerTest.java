@@ -0,0 +1,43 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which generations start the container in the background.
+ *
+ * @author Too_young
+ */
+class PrewarmContainerTest {
+    private static final String PREWARM_LOG_MESSAGE = "Starting the codegen database container in the background";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void prewarmsTheContainerTheSchemaIsMigratedInto() throws IOException {
+        // without Docker the lease fails once the background startup does
+        BuildResult result = generate("source = 'container'").run();
+        assertTrue(result.getOutput().contains(PREWARM_LOG_MESSAGE), result.getOutput());
+    }
+
+    @Test
+    void doesNotPrewarmForTheDdlSource() throws IOException {
+        BuildResult result = generate("source = 'ddl'").build();
+        assertFalse(result.getOutput().contains(PREWARM_LOG_MESSAGE), result.getOutput());
+    }
+
+    private GradleRunner generate(String database) throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "prewarmContainer = true", database, "", "");
+        return TestProjects.runner(testProjectDir, "generateJooq", "--info");
+    }
+}
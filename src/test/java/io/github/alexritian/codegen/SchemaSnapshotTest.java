@@ -0,0 +1,101 @@
+package io.github.alexritian.codegen;
+
+import io.github.alexritian.codegen.migration.MigrationScripts;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.Schema;
+import org.jooq.impl.DSL;
+import org.jooq.util.xml.jaxb.InformationSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.DockerClientFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generates from a schema snapshot keyed on the migration scripts. A snapshot of the current scripts is used without
+ * starting a container, so the hit needs no Docker.
+ *
+ * @author Too_young
+ */
+class SchemaSnapshotTest {
+    private static final String SNAPSHOT = "jooq.configurations.main.schemaSnapshot.enabled = true";
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL);\n";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void generatesFromTheSnapshotOfTheCurrentScripts() throws Exception {
+        TestProjects.writeBuild(testProjectDir, "", "source = 'container'", "", SNAPSHOT);
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        File snapshot = writeSnapshot(TestProjects.MAJOR_EVENTS);
+
+        BuildResult result = TestProjects.runner(testProjectDir, "generateJooq", "--info").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        assertTrue(result.getOutput().contains("Using schema snapshot: " + snapshot), result.getOutput());
+        assertTrue(report().contains("\"schemaSnapshot\": \"hit\""), report());
+        assertTrue(TestProjects.generatedFiles(testProjectDir).stream().anyMatch(path -> path.endsWith("/tables/MajorEvents.java")));
+    }
+
+    @Test
+    void missesTheSnapshotOfChangedScripts() throws Exception {
+        TestProjects.writeBuild(testProjectDir, "", "source = 'container'", "", SNAPSHOT);
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        File outdated = writeSnapshot(TestProjects.MAJOR_EVENTS);
+        TestProjects.writeMigration(testProjectDir, "V2__author.sql", AUTHOR);
+
+        // without Docker the miss fails on starting the container
+        BuildResult result = TestProjects.runner(testProjectDir, "generateJooq", "--info").run();
+        assertFalse(result.getOutput().contains("Using schema snapshot"), result.getOutput());
+        if (!DockerClientFactory.instance().isDockerAvailable()) {
+            return;
+        }
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        assertTrue(report().contains("\"schemaSnapshot\": \"miss\""), report());
+        // the exported snapshot replaces the one of the outdated scripts and is used by the next run
+        assertFalse(outdated.exists());
+        assertTrue(snapshotFile().isFile());
+        result = TestProjects.runner(testProjectDir, "generateJooq", "--rerun-tasks").build();
+        assertEquals(TaskOutcome.SUCCESS, result.task(":generateJooq").getOutcome());
+        assertTrue(report().contains("\"schemaSnapshot\": \"hit\""), report());
+        assertTrue(TestProjects.generatedFiles(testProjectDir).stream().anyMatch(path -> path.endsWith("/tables/Author.java")));
+    }
+
+    /**
+     * Writes the snapshot the plugin would export after migrating the current scripts to the given tables.
+     */
+    private File writeSnapshot(String ddl) throws IOException, JAXBException {
+        DSLContext ctx = DSL.using(SQLDialect.POSTGRES);
+        Schema[] schemas = ctx.meta("CREATE SCHEMA IF NOT EXISTS public;\n" + ddl.replace("CREATE TABLE ", "CREATE TABLE public."))
+                .getSchemas("public")
+                .toArray(new Schema[0]);
+        InformationSchema informationSchema = ctx.informationSchema(schemas);
+        File snapshot = snapshotFile();
+        Files.createDirectories(snapshot.getParentFile().toPath());
+        JAXBContext.newInstance(InformationSchema.class).createMarshaller().marshal(informationSchema, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot of the current scripts, keyed on the schema and the default image
+     */
+    private File snapshotFile() {
+        String key = MigrationScripts.scan(new File(testProjectDir, "src/main/resources/db/migration")).checksum("public", "postgres:16.4");
+        return new File(testProjectDir, "src/main/jooq/public-" + key + ".xml");
+    }
+
+    private String report() throws IOException {
+        return Files.readString(testProjectDir.toPath().resolve("build/reports/jooq-codegen/generateJooq.json"));
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.GradleRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the builds run by the TestKit tests. Unless a test selects another source, the schema is interpreted from the
+ * migration scripts by the DDL source, so the builds don't need Docker.
+ *
+ * @author Too_young
+ */
+final class TestProjects {
+
+    static final String MAJOR_EVENTS = """
+            CREATE TABLE major_events (
+                id serial4 NOT NULL,
+                start_date date NOT NULL,
+                title varchar NOT NULL,
+                weight numeric(3,2) NULL,
+                CONSTRAINT major_events_pk PRIMARY KEY (id)
+            );
+            """;
+
+    private TestProjects() {
+    }
+
+    /**
+     * @param jooq the statements added to the {@code jooq} block
+     * @param output the statements added to the {@code output} block of the main configuration
+     */
+    static void writeBuild(File projectDir, String jooq, String output) throws IOException {
+        writeBuild(projectDir, jooq, "source = 'ddl'", output, "");
+    }
+
+    /**
+     * @param database the statements added to the {@code database} block of the main configuration
+     * @param script the statements appended to the build script
+     */
+    static void writeBuild(File projectDir, String jooq, String database, String output, String script) throws IOException {
+        write(new File(projectDir, "settings.gradle"), "rootProject.name = 'codegen-test'\n");
+        write(new File(projectDir, "build.gradle"), """
+                plugins {
+                    // the plugin adds its runtime to the implementation dependencies of the java plugin
+                    id 'java'
+                    id 'io.github.alexritian.codegen-gradle-plugin'
+                }
+
+                repositories {
+                    mavenLocal()
+                    mavenCentral()
+                }
+
+                dependencies {
+                    // the generated DAOs are annotated as Spring repositories
+                    implementation 'org.springframework:spring-context:6.1.14'
+                }
+
+                jooq {
+                    %s
+                    configurations {
+                        main {
+                            database {
+                                schema = 'public'
+                                %s
+                            }
+                            output {
+                                packageName = 'org.moonlit.codegen'
+                                %s
+                            }
+                        }
+                    }
+                }
+
+                %s
+                """.formatted(jooq, database, output, script));
+    }
+
+    static void writeSource(File projectDir, String path, String content) throws IOException {
+        write(new File(projectDir, path), content);
+    }
+
+    static void writeMigration(File projectDir, String name, String sql) throws IOException {
+        write(new File(projectDir, "src/main/resources/db/migration/" + name), sql);
+    }
+
+    static GradleRunner runner(File projectDir, String... arguments) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir)
+                .withPluginClasspath()
+                .withArguments(arguments);
+    }
+
+    /**
+     * @return the paths of the generated sources, relative to the output directory
+     */
+    static List<String> generatedFiles(File projectDir) throws IOException {
+        Path outputDir = projectDir.toPath().resolve("build/generated/source/jooq");
+        if (!Files.isDirectory(outputDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> outputDir.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnectionException;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.ResultHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs {@code watchJooq} in the background, changes the migration scripts under it and cancels the build like Ctrl+C
+ * does. The TestKit can't cancel a build, so the test runs it with the Tooling API, on the Gradle installation that runs
+ * the tests, and adds the plugin to the classpath of the settings script.
+ *
+ * @author Too_young
+ */
+class WatchTest {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL);\n";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void regeneratesUntilTheBuildIsCancelled() throws Exception {
+        String installation = System.getProperty("gradle.installation");
+        assumeTrue(installation != null, "The Gradle installation is not known");
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeBuild(testProjectDir, "", "");
+        writeSettingsWithPluginClasspath();
+
+        CancellationTokenSource cancellation = GradleConnector.newCancellationTokenSource();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompletableFuture<Void> build = new CompletableFuture<>();
+        try (ProjectConnection connection = GradleConnector.newConnector()
+                .useInstallation(new File(installation))
+                .forProjectDirectory(testProjectDir)
+                .connect()) {
+            connection.newBuild()
+                    .forTasks("watchJooq")
+                    .withCancellationToken(cancellation.token())
+                    .setStandardOutput(output)
+                    .run(new ResultHandler<>() {
+                        @Override
+                        public void onComplete(Void result) {
+                            build.complete(result);
+                        }
+
+                        @Override
+                        public void onFailure(GradleConnectionException failure) {
+                            build.completeExceptionally(failure);
+                        }
+                    });
+            try {
+                await(() -> generated("major"), build);
+                assertFalse(generated("author"));
+
+                TestProjects.writeMigration(testProjectDir, "V2__author.sql", AUTHOR);
+                await(() -> generated("author"), build);
+            } finally {
+                cancellation.cancel();
+            }
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> build.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+            assertInstanceOf(BuildCancelledException.class, e.getCause());
+            // the task stopped watching by itself, instead of being abandoned with its daemon
+            assertTrue(output.toString().contains("Stopped watching"), output.toString());
+        }
+    }
+
+    private boolean generated(String table) {
+        try {
+            return TestProjects.generatedFiles(testProjectDir).stream().anyMatch(path -> path.toLowerCase(Locale.ROOT).contains(table));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // the plugins of the settings classpath are applied by their id, like the ones the TestKit injects
+    private void writeSettingsWithPluginClasspath() throws IOException {
+        Properties metadata = new Properties();
+        try (InputStream in = WatchTest.class.getClassLoader().getResourceAsStream("plugin-under-test-metadata.properties")) {
+            assumeTrue(in != null, "The plugin under test metadata is not available");
+            metadata.load(in);
+        }
+        String classpath = Arrays.stream(metadata.getProperty("implementation-classpath").split(File.pathSeparator))
+                .map(path -> "'" + path.replace("\\", "/") + "'")
+                .collect(Collectors.joining(", "));
+        TestProjects.writeSource(testProjectDir, "settings.gradle", """
+                buildscript {
+                    dependencies {
+                        classpath files(%s)
+                    }
+                }
+                rootProject.name = 'codegen-test'
+                """.formatted(classpath));
+    }
+
+    private static void await(BooleanSupplier condition, CompletableFuture<Void> build) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (build.isDone()) {
+                // surfaces the failure of a build that ended early
+                build.get();
+            }
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the sources");
+            Thread.sleep(200);
+        }
+    }
+}
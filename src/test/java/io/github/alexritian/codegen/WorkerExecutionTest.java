@@ -0,0 +1,61 @@
+package io.github.alexritian.codegen;
+
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generates through the Worker API instead of a forked {@code GenerationTool}, and checks the sources and the report of
+ * the run.
+ *
+ * @author Too_young
+ */
+class WorkerExecutionTest {
+    private static final String AUTHOR = "CREATE TABLE author (id int PRIMARY KEY, name varchar(50) NOT NULL);\n";
+
+    @TempDir
+    File testProjectDir;
+
+    @Test
+    void generatesInAWorkerProcess() throws IOException {
+        String report = generate("worker_process", "shards = 2");
+        assertTrue(report.contains("\"execution\": \"WORKER_PROCESS\""), report);
+        // the worker daemon reports its own heap, unlike a worker in the Gradle daemon
+        assertTrue(report.contains("\"" + GeneratorStatistics.PEAK_HEAP_BYTES + "\""), report);
+    }
+
+    @Test
+    void generatesInTheGradleDaemon() throws IOException {
+        String report = generate("worker_classloader", "");
+        assertTrue(report.contains("\"execution\": \"WORKER_CLASSLOADER\""), report);
+        assertFalse(report.contains("\"" + GeneratorStatistics.PEAK_HEAP_BYTES + "\""), report);
+    }
+
+    /**
+     * @return the JSON report of the run
+     */
+    private String generate(String execution, String output) throws IOException {
+        TestProjects.writeMigration(testProjectDir, "V1__init.sql", TestProjects.MAJOR_EVENTS);
+        TestProjects.writeMigration(testProjectDir, "V2__author.sql", AUTHOR);
+        TestProjects.writeBuild(testProjectDir, "execution = '" + execution + "'", output);
+        assertEquals(TaskOutcome.SUCCESS, TestProjects.runner(testProjectDir, "generateJooq").build().task(":generateJooq").getOutcome());
+
+        List<String> files = TestProjects.generatedFiles(testProjectDir);
+        assertTrue(files.stream().anyMatch(path -> path.endsWith("/tables/MajorEvents.java")), files.toString());
+        assertTrue(files.stream().anyMatch(path -> path.endsWith("/tables/Author.java")), files.toString());
+
+        String report = Files.readString(testProjectDir.toPath().resolve("build/reports/jooq-codegen/generateJooq.json"));
+        assertTrue(report.contains("\"writeConfiguration\": "), report);
+        assertTrue(report.contains("\"executeJooq\": "), report);
+        return report;
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.alexritian.codegen.containers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class ContainerSlotsTest {
+
+    @Test
+    void startsAnotherContainerOnlyWhileAllRunningOnesAreInUse() {
+        ContainerSlots<String> slots = new ContainerSlots<>(2);
+        ContainerSlots.Lease<String> first = slots.lease();
+        assertEquals(0, first.slot().getIndex());
+        assertTrue(first.starting());
+
+        ContainerSlots.Lease<String> second = slots.lease();
+        assertEquals(1, second.slot().getIndex());
+        assertTrue(second.starting());
+
+        // both containers run, the released one has no lease left
+        slots.release(first.slot());
+        ContainerSlots.Lease<String> third = slots.lease();
+        assertEquals(0, third.slot().getIndex());
+        assertFalse(third.starting());
+        assertSame(first.startup(), third.startup());
+    }
+
+    @Test
+    void prefersARunningContainerOverStartingAnother() {
+        ContainerSlots<String> slots = new ContainerSlots<>(2);
+        ContainerSlots.Lease<String> first = slots.lease();
+        slots.release(first.slot());
+
+        ContainerSlots.Lease<String> second = slots.lease();
+        assertEquals(0, second.slot().getIndex());
+        assertFalse(second.starting());
+        assertEquals(1, slots.startups().size());
+    }
+
+    @Test
+    void sharesTheContainerOfAFullPool() {
+        ContainerSlots<String> slots = new ContainerSlots<>(1);
+        ContainerSlots.Lease<String> first = slots.lease();
+        ContainerSlots.Lease<String> second = slots.lease();
+        assertSame(first.slot(), second.slot());
+        assertFalse(second.starting());
+    }
+
+    @Test
+    void leasesThePrewarmedContainer() {
+        ContainerSlots<String> slots = new ContainerSlots<>(2);
+        CompletableFuture<String> startup = slots.prewarm();
+        assertNotNull(startup);
+        // the container is started once, however often the prewarm is requested
+        assertNull(slots.prewarm());
+
+        ContainerSlots.Lease<String> lease = slots.lease();
+        assertEquals(0, lease.slot().getIndex());
+        assertFalse(lease.starting());
+        assertSame(startup, lease.startup());
+    }
+
+    @Test
+    void doesNotPrewarmAStartedContainer() {
+        ContainerSlots<String> slots = new ContainerSlots<>(1);
+        slots.lease();
+        assertNull(slots.prewarm());
+    }
+
+    @Test
+    void keepsTheSpareDatabasesOfASlot() {
+        ContainerSlots<String> slots = new ContainerSlots<>(1);
+        ContainerSlots.Lease<String> first = slots.lease();
+        first.slot().getSpareDatabases().add("codegen_2");
+        slots.release(first.slot());
+        assertEquals("codegen_2", slots.lease().slot().getSpareDatabases().poll());
+    }
+}
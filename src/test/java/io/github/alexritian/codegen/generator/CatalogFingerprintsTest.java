@@ -0,0 +1,92 @@
+package io.github.alexritian.codegen.generator;
+
+import org.jooq.meta.extensions.ddl.DDLDatabase;
+import org.jooq.meta.jaxb.SchemaMappingType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @author Too_young
+ */
+class CatalogFingerprintsTest {
+    private static final String OTHER_TABLE = "CREATE TABLE other (id int PRIMARY KEY);\n";
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void sameSchemaHasSameFingerprints() throws IOException {
+        String sql = OTHER_TABLE + "CREATE TABLE item (id int PRIMARY KEY, name varchar(20) DEFAULT 'a');\n";
+        assertEquals(fingerprints("first", sql), fingerprints("second", sql));
+    }
+
+    @Test
+    void columnDefaultChangesOnlyItsTable() throws IOException {
+        Map<String, String> before = fingerprints("before", OTHER_TABLE + "CREATE TABLE item (id int PRIMARY KEY, name varchar(20) DEFAULT 'a');\n");
+        Map<String, String> after = fingerprints("after", OTHER_TABLE + "CREATE TABLE item (id int PRIMARY KEY, name varchar(20) DEFAULT 'b');\n");
+        assertNotEquals(table(before, "item"), table(after, "item"));
+        assertEquals(table(before, "other"), table(after, "other"));
+        assertEquals(before.get(CatalogFingerprints.SCHEMA_OBJECTS), after.get(CatalogFingerprints.SCHEMA_OBJECTS));
+    }
+
+    // the open source parser doesn't interpret computed columns, so an identity stands in for a generated value
+    @Test
+    void identityColumnChangesItsTable() throws IOException {
+        Map<String, String> plain = fingerprints("plain", "CREATE TABLE item (id int PRIMARY KEY, price int);\n");
+        Map<String, String> identity = fingerprints("identity", "CREATE TABLE item (id int GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, price int);\n");
+        assertNotEquals(table(plain, "item"), table(identity, "item"));
+    }
+
+    @Test
+    void domainDefinitionChangesSchemaObjects() throws IOException {
+        Map<String, String> before = fingerprints("before", "CREATE DOMAIN amount AS int DEFAULT 0;\n");
+        Map<String, String> after = fingerprints("after", "CREATE DOMAIN amount AS int DEFAULT 1;\n");
+        assertNotEquals(before.get(CatalogFingerprints.SCHEMA_OBJECTS), after.get(CatalogFingerprints.SCHEMA_OBJECTS));
+    }
+
+    private static String table(Map<String, String> fingerprints, String table) {
+        return fingerprints.entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith("." + table))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No fingerprint of " + table + " in " + fingerprints.keySet()));
+    }
+
+    private Map<String, String> fingerprints(String name, String sql) throws IOException {
+        File migrationsDir = new File(tempDir, name);
+        Files.createDirectories(migrationsDir.toPath());
+        Files.writeString(new File(migrationsDir, "V1__init.sql").toPath(), sql, StandardCharsets.UTF_8);
+
+        Properties properties = new Properties();
+        properties.setProperty("scripts", new File(migrationsDir, "*.sql").getAbsolutePath());
+        properties.setProperty("unqualifiedSchema", "public");
+        properties.setProperty("defaultNameCase", "lower");
+        try (DDLDatabase database = new DDLDatabase()) {
+            database.setProperties(properties);
+            // unqualified tables are created in the PUBLIC schema of H2
+            database.setConfiguredSchemata(List.of(new SchemaMappingType().withInputSchema("PUBLIC").withOutputSchema("public")));
+            database.setIncludes(new String[]{".*"});
+            database.setExcludes(new String[0]);
+            database.setIncludeTables(true);
+            database.setIncludePrimaryKeys(true);
+            database.setIncludeUniqueKeys(true);
+            database.setIncludeForeignKeys(true);
+            database.setIncludeIndexes(true);
+            database.setIncludeCheckConstraints(true);
+            database.setIncludeDomains(true);
+            database.setIncludeSequences(true);
+            return CatalogFingerprints.of(database);
+        }
+    }
+}
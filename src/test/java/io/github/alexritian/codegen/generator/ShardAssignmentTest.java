@@ -0,0 +1,58 @@
+package io.github.alexritian.codegen.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class ShardAssignmentTest {
+
+    @Test
+    void assignsEveryTableToOneShard() {
+        Map<String, Integer> columnCounts = new HashMap<>();
+        for (int table = 0; table < 100; table++) {
+            columnCounts.put("public.t" + table, 1 + table % 17);
+        }
+        Map<String, Integer> assignment = CodegenJavaGenerator.assignShards(columnCounts, 4);
+        assertEquals(columnCounts.keySet(), assignment.keySet());
+        assertTrue(assignment.values().stream().allMatch(shard -> shard >= 0 && shard < 4));
+    }
+
+    @Test
+    void balancesTheColumns() {
+        Map<String, Integer> columnCounts = new HashMap<>();
+        for (int table = 0; table < 200; table++) {
+            columnCounts.put("public.t" + table, 1 + table * 7 % 40);
+        }
+        Map<String, Integer> assignment = CodegenJavaGenerator.assignShards(columnCounts, 3);
+        long[] columns = new long[3];
+        assignment.forEach((table, shard) -> columns[shard] += columnCounts.get(table) + 1);
+        long widest = columnCounts.values().stream().mapToLong(count -> count + 1).max().orElseThrow();
+        for (long shardColumns : columns) {
+            // the greedy assignment leaves the shards at most one table apart
+            assertTrue(Math.abs(shardColumns - columns[0]) <= widest, Arrays.toString(columns));
+        }
+    }
+
+    @Test
+    void doesNotDependOnTheIterationOrder() {
+        Map<String, Integer> ascending = new LinkedHashMap<>();
+        Map<String, Integer> descending = new LinkedHashMap<>();
+        for (int table = 0; table < 50; table++) {
+            ascending.put("public.t" + table, table % 5);
+        }
+        for (int table = 49; table >= 0; table--) {
+            descending.put("public.t" + table, table % 5);
+        }
+        // every shard computes the assignment on its own, so the shards must agree on it
+        assertEquals(CodegenJavaGenerator.assignShards(ascending, 4), CodegenJavaGenerator.assignShards(descending, 4));
+    }
+}
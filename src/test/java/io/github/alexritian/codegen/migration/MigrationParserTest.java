@@ -0,0 +1,59 @@
+package io.github.alexritian.codegen.migration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class MigrationParserTest {
+
+    @TempDir
+    File migrationsDir;
+
+    @Test
+    void errorsInSupportedStatementsAreProblems() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);\nCREATE TABLE b (id int NOT NUL, name varchar(10));\n");
+        List<String> problems = new ArrayList<>();
+        List<String> unsupported = new ArrayList<>();
+        MigrationParser.parse(MigrationParser.dslContext(), MigrationScripts.scan(migrationsDir), problems, unsupported);
+        assertEquals(1, problems.size(), problems.toString());
+        assertTrue(problems.get(0).startsWith("V1__init.sql:2:"), problems.toString());
+        assertTrue(unsupported.isEmpty(), unsupported.toString());
+    }
+
+    @Test
+    void dollarQuotedBodiesAreUnsupported() {
+        String sql = "CREATE TABLE a (id int);\nDO $body$ BEGIN PERFORM 1; END $body$;\n";
+        assertFalse(MigrationParser.isSupported(sql, sql.indexOf("PERFORM")));
+        assertFalse(MigrationParser.isSupported(sql, sql.indexOf("DO")));
+    }
+
+    @Test
+    void statementsAfterCommentsAreRecognized() {
+        String sql = "-- the table\n/* of items */ CREATE TABLE item (id int NOT NUL);";
+        assertTrue(MigrationParser.isSupported(sql, sql.indexOf("NUL)")));
+    }
+
+    @Test
+    void statementsOfOtherKindsAreUnsupported() {
+        String sql = "CREATE TABLE a (id int);\nCREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;\n";
+        assertTrue(MigrationParser.isSupported(sql, sql.indexOf("id int")));
+        assertFalse(MigrationParser.isSupported(sql, sql.indexOf("WITH SCHEMA")));
+    }
+
+    private void write(String path, String sql) throws IOException {
+        Files.writeString(new File(migrationsDir, path).toPath(), sql, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.alexritian.codegen.migration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Too_young
+ */
+class MigrationScriptsTest {
+
+    @TempDir
+    File migrationsDir;
+
+    @Test
+    void canMigrateToAddedScripts() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        MigrationScripts applied = MigrationScripts.scan(migrationsDir);
+        write("V2__next.sql", "CREATE TABLE b (id int);");
+        write("R__view.sql", "CREATE VIEW v AS SELECT 1;");
+        assertTrue(applied.canMigrateTo(MigrationScripts.scan(migrationsDir)));
+    }
+
+    @Test
+    void cannotMigrateToChangedScripts() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        MigrationScripts applied = MigrationScripts.scan(migrationsDir);
+        write("V1__init.sql", "CREATE TABLE a (id bigint);");
+        assertFalse(applied.canMigrateTo(MigrationScripts.scan(migrationsDir)));
+    }
+
+    @Test
+    void cannotMigrateToInsertedScripts() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("V3__last.sql", "CREATE TABLE c (id int);");
+        MigrationScripts applied = MigrationScripts.scan(migrationsDir);
+        write("V2__inserted.sql", "CREATE TABLE b (id int);");
+        assertFalse(applied.canMigrateTo(MigrationScripts.scan(migrationsDir)));
+    }
+
+    @Test
+    void cannotMigrateToRemovedRepeatableScripts() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("R__view.sql", "CREATE VIEW v AS SELECT 1;");
+        MigrationScripts applied = MigrationScripts.scan(migrationsDir);
+        Files.delete(new File(migrationsDir, "R__view.sql").toPath());
+        assertFalse(applied.canMigrateTo(MigrationScripts.scan(migrationsDir)));
+    }
+
+    @Test
+    void findsDuplicateVersionsAndDescriptions() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("nested/V1__other.sql", "CREATE TABLE b (id int);");
+        write("R__view.sql", "CREATE VIEW v AS SELECT 1;");
+        write("nested/R__view.sql", "CREATE VIEW w AS SELECT 1;");
+        write("V2__unique.sql", "CREATE TABLE c (id int);");
+
+        List<String> duplicates = MigrationScripts.scan(migrationsDir).duplicates();
+        assertEquals(2, duplicates.size(), duplicates.toString());
+        assertTrue(duplicates.stream().anyMatch(problem -> problem.endsWith("duplicate version 1")), duplicates.toString());
+        assertTrue(duplicates.stream().anyMatch(problem -> problem.endsWith("duplicate description 'view'")), duplicates.toString());
+    }
+
+    @Test
+    void findsScriptsOlderThanTheAppliedOnes() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("V3__last.sql", "CREATE TABLE c (id int);");
+        MigrationScripts applied = MigrationScripts.scan(migrationsDir);
+        write("V2__inserted.sql", "CREATE TABLE b (id int);");
+        write("V4__added.sql", "CREATE TABLE d (id int);");
+
+        List<String> outOfOrder = MigrationScripts.scan(migrationsDir).outOfOrder(applied.versions());
+        assertEquals(1, outOfOrder.size(), outOfOrder.toString());
+        assertTrue(outOfOrder.get(0).startsWith("V2__inserted.sql: "), outOfOrder.toString());
+    }
+
+    @Test
+    void nothingIsOutOfOrderWithoutAppliedScripts() throws IOException {
+        write("V2__second.sql", "CREATE TABLE b (id int);");
+        write("V1__first.sql", "CREATE TABLE a (id int);");
+        assertTrue(MigrationScripts.scan(migrationsDir).outOfOrder(Map.of()).isEmpty());
+    }
+
+    @Test
+    void findsTheCheckpointOfTheContinuedHistory() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("V2__next.sql", "CREATE TABLE b (id int);");
+        String checkpoint = MigrationScripts.scan(migrationsDir).prefixChecksums("public", "postgres:16.4").get(0);
+        write("V3__last.sql", "CREATE TABLE c (id int);");
+
+        List<String> checksums = MigrationScripts.scan(migrationsDir).prefixChecksums("public", "postgres:16.4");
+        assertEquals(3, checksums.size());
+        // the newest checkpoint to start from is the one of the first two scripts
+        assertEquals(1, checksums.indexOf(checkpoint));
+    }
+
+    @Test
+    void findsNoCheckpointOfARewrittenHistory() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        write("V2__next.sql", "CREATE TABLE b (id int);");
+        List<String> checkpoints = MigrationScripts.scan(migrationsDir).prefixChecksums("public", "postgres:16.4");
+        write("V1__init.sql", "CREATE TABLE a (id bigint);");
+
+        List<String> checksums = MigrationScripts.scan(migrationsDir).prefixChecksums("public", "postgres:16.4");
+        assertTrue(checksums.stream().noneMatch(checkpoints::contains), checksums.toString());
+    }
+
+    @Test
+    void keysTheCheckpointsOnTheSchemaAndTheImage() throws IOException {
+        write("V1__init.sql", "CREATE TABLE a (id int);");
+        MigrationScripts scripts = MigrationScripts.scan(migrationsDir);
+        String checkpoint = scripts.prefixChecksums("public", "postgres:16.4").get(0);
+        assertFalse(scripts.prefixChecksums("billing", "postgres:16.4").contains(checkpoint));
+        assertFalse(scripts.prefixChecksums("public", "postgres:17.0").contains(checkpoint));
+    }
+
+    private void write(String path, String sql) throws IOException {
+        File file = new File(migrationsDir, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), sql, StandardCharsets.UTF_8);
+    }
+}